@@ -0,0 +1,27 @@
+package com.bookstore.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String BOOKS_CACHE = "books";
+    public static final String BOOK_SEARCH_CACHE = "bookSearch";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> bookstoreCacheCustomizer(
+            @Value("${bookstore.cache.books.spec}") String booksSpec,
+            @Value("${bookstore.cache.book-search.spec}") String bookSearchSpec) {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(BOOKS_CACHE, Caffeine.from(booksSpec).build());
+            cacheManager.registerCustomCache(
+                    BOOK_SEARCH_CACHE, Caffeine.from(bookSearchSpec).build());
+        };
+    }
+}
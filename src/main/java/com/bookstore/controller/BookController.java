@@ -1,19 +1,40 @@
 package com.bookstore.controller;
 
+import com.bookstore.dto.CursorPageDto;
+import com.bookstore.dto.book.BookBatchDto;
 import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookFacetsDto;
+import com.bookstore.dto.book.BookIdsRequestDto;
+import com.bookstore.dto.book.BookImportResultDto;
+import com.bookstore.dto.book.BookSuggestionDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
-import com.bookstore.model.Book;
 import com.bookstore.repository.BookSearchParametersDto;
+import com.bookstore.service.BookExportService;
+import com.bookstore.service.BookImportService;
 import com.bookstore.service.BookService;
+import com.bookstore.service.CoverImageService;
+import com.bookstore.service.KeysetCursorCodec;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,9 +42,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/books")
@@ -32,6 +56,9 @@ import org.springframework.web.bind.annotation.RestController;
 public class BookController {
     @Autowired
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final BookExportService bookExportService;
+    private final CoverImageService coverImageService;
 
     @Operation(
             summary = "Get paginated list of books",
@@ -39,15 +66,63 @@ public class BookController {
     )
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping
-    public Page<BookDto> getAll(Pageable pageable) {
+    public Page<BookDto> getAll(@PageableDefault(sort = "id") Pageable pageable) {
         return bookService.findAll(pageable);
     }
 
-    @Operation(summary = "Get book by ID", description = "Returns a single book by its ID")
+    @Operation(
+            summary = "Get books with keyset pagination",
+            description = "Returns the page of books after the given opaque cursor together "
+                    + "with next/prev cursors. Pass an empty 'after' for the first page. "
+                    + "Sortable by id, title, price or author"
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(params = "after")
+    public CursorPageDto<BookDto> getAllByCursor(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "" + KeysetCursorCodec.DEFAULT_PAGE_SIZE) int size,
+            @SortDefault(sort = "id") Sort sort) {
+        return bookService.findAll(after, size, sort);
+    }
+
+    @Operation(summary = "Get books by IDs",
+            description = "Returns the books with the given comma-separated ids in request "
+                    + "order, served from the book cache first and loaded in one query "
+                    + "otherwise. Unknown ids are reported in missingIds")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @GetMapping(params = "ids")
+    public BookBatchDto getBooksByIds(@RequestParam List<Long> ids) {
+        return bookService.getBooksByIds(ids);
+    }
+
+    @Operation(summary = "Get books by IDs from the request body",
+            description = "Same as GET /books?ids=... for id lists too long for a URL")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @PostMapping("/batch")
+    public BookBatchDto getBooksByIdsBatch(@RequestBody @Valid BookIdsRequestDto dto) {
+        return bookService.getBooksByIds(dto.getIds());
+    }
+
+    @Operation(summary = "Get book by ID",
+            description = "Returns a single book by its ID. Answers 304 Not Modified when "
+                    + "If-None-Match holds the current ETag")
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/{id}")
-    public BookDto getBookById(@PathVariable Long id) {
-        return bookService.getBookById(id);
+    public ResponseEntity<BookDto> getBookById(@PathVariable Long id, WebRequest request) {
+        String etag = bookService.findVersion(id)
+                .map(version -> ConditionalResponses.etag("book-" + id, version))
+                .orElse(null);
+        return ConditionalResponses.ifNoneMatch(request, etag,
+                () -> bookService.getBookById(id));
+    }
+
+    @Operation(summary = "Get book by ISBN",
+            description = "Returns a single book by its ISBN-10 or ISBN-13, with or without "
+                    + "hyphens")
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/isbn/{isbn}")
+    public BookDto getBookByIsbn(@PathVariable String isbn) {
+        return bookService.getBookByIsbn(isbn);
     }
 
     @Operation(summary = "Create a new book",
@@ -58,6 +133,50 @@ public class BookController {
         return bookService.createBook(dto);
     }
 
+    @Operation(summary = "Bulk import books from NDJSON",
+            description = "Streams one CreateBookRequestDto JSON object per line, inserts them "
+                    + "in JDBC batches and reports per-row errors")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/bulk", consumes = BookImportService.NDJSON)
+    public BookImportResultDto importBooksFromNdjson(InputStream body) throws IOException {
+        return bookImportService.importNdjson(body);
+    }
+
+    @Operation(summary = "Bulk import books from CSV",
+            description = "Streams CSV with a header row (title, author, isbn, price, description, "
+                    + "coverImage, categoryIds separated by ';'), inserts books in JDBC batches "
+                    + "and reports per-row errors")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/bulk", consumes = BookImportService.CSV)
+    public BookImportResultDto importBooksFromCsv(InputStream body) throws IOException {
+        return bookImportService.importCsv(body);
+    }
+
+    @Operation(summary = "Export the whole catalog",
+            description = "Streams all books as NDJSON (default) or CSV in the bulk import "
+                    + "format, gzip-compressed when the client accepts it")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export")
+    public void exportBooks(
+            @RequestParam(defaultValue = "ndjson") BookExportService.Format format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"books." + format.getExtension() + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        try (OutputStream out = gzip
+                ? new GZIPOutputStream(response.getOutputStream(), true)
+                : response.getOutputStream()) {
+            bookExportService.exportBooks(format, out);
+        }
+    }
+
     @Operation(summary = "Update an existing book", description = "Updates book information by ID")
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/{id}")
@@ -65,6 +184,18 @@ public class BookController {
         return bookService.updateBook(id, dto);
     }
 
+    @Operation(summary = "Upload a cover image",
+            description = "Stores the request body as the book's cover in the "
+                    + "content-addressed cover store and points coverImage at it")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping(value = "/{id}/cover", consumes = {MediaType.IMAGE_JPEG_VALUE,
+            MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_GIF_VALUE, "image/webp"})
+    public BookDto uploadCover(@PathVariable Long id,
+                               @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                               InputStream body) throws IOException {
+        return coverImageService.storeCover(id, contentType, body);
+    }
+
     @Operation(summary = "Delete a book", description = "Deletes the book with given ID")
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
@@ -73,13 +204,49 @@ public class BookController {
         bookService.deleteBook(id);
     }
 
-    @Operation(summary = "Search for books", description = "Search books by filter parameters")
+    @Operation(summary = "Search for books",
+            description = "Returns a page of books matching the filter parameters, sortable by "
+                    + "id, title, price or author. categories takes a boolean expression of "
+                    + "category ids such as '(1 OR 2) AND 5'. Pass count=false to skip the "
+                    + "total count and get a slice that only reports whether a next page exists")
     @PreAuthorize("hasRole('USER')")
     @GetMapping("/search")
-    public List<BookDto> searchBooks(BookSearchParametersDto params) {
-        List<Book> books = bookService.searchBooks(params);
-        return books.stream()
-                .map(bookService::mapToDto)
-                .toList();
+    public Slice<BookDto> searchBooks(BookSearchParametersDto params,
+                                      @PageableDefault(sort = "id") Pageable pageable,
+                                      @RequestParam(defaultValue = "true") boolean count) {
+        return bookService.searchBooks(params, pageable, count);
+    }
+
+    @Operation(summary = "Search for books with facet counts",
+            description = "Returns the page of books matching the filter parameters (including "
+                    + "categoryIds and prices ranges like '10-20', '-10' or '50-') together "
+                    + "with the number of matching books per category, price bucket and author")
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/facets")
+    public BookFacetsDto searchBooksWithFacets(BookSearchParametersDto params,
+                                               @PageableDefault(sort = "id") Pageable pageable) {
+        return bookService.searchFacets(params, pageable);
+    }
+
+    @Operation(summary = "Full-text search for books",
+            description = "Ranks books by relevance of title, author and description to the "
+                    + "query; matches case-insensitively, by prefix and with small typos")
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping(value = "/search", params = "q")
+    public List<BookDto> searchBooksByText(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "" + KeysetCursorCodec.DEFAULT_PAGE_SIZE) int size) {
+        return bookService.searchBooks(q, size);
+    }
+
+    @Operation(summary = "Suggest titles and authors",
+            description = "Returns the best-selling titles and authors with a word starting "
+                    + "with the given prefix, for typeahead")
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/suggest")
+    public List<BookSuggestionDto> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int size) {
+        return bookService.suggest(q, size);
     }
 }
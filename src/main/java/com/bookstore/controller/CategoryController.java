@@ -2,14 +2,24 @@ package com.bookstore.controller;
 
 import com.bookstore.dto.CategoryDto;
 import com.bookstore.dto.CreateCategoryDto;
+import com.bookstore.dto.CursorPageDto;
 import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.bookstore.service.CategoryService;
+import com.bookstore.service.KeysetCursorCodec;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,8 +28,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/categories")
@@ -38,23 +50,54 @@ public class CategoryController {
     }
 
     @Operation(summary = "Get all categories",
-            description = "Returns a list of all categories. Available for USER and ADMIN.")
-    @GetMapping
+            description = "Returns a list of all categories. Answers 304 Not Modified when "
+                    + "If-None-Match holds the current ETag. Available for USER and ADMIN.")
+    @ApiResponse(responseCode = "200", content = @Content(
+            array = @ArraySchema(schema = @Schema(implementation = CategoryDto.class))))
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public List<CategoryDto> getAll() {
-        return categoryService.findAll();
+    public ResponseEntity<byte[]> getAll(WebRequest request) {
+        String etag = ConditionalResponses.etag("categories",
+                Long.toHexString(categoryService.getListVersion()));
+        return ConditionalResponses.ifNoneMatch(request, etag, categoryService::findAllJson);
     }
 
     @Operation(summary = "Get category by ID",
-            description = "Returns a specific category by its ID. Available for USER and ADMIN.")
+            description = "Returns a specific category by its ID. Answers 304 Not Modified "
+                    + "when If-None-Match holds the current ETag. Available for USER and ADMIN.")
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public CategoryDto getCategoryById(@PathVariable Long id) {
-        return categoryService.getById(id);
+    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id,
+                                                       WebRequest request) {
+        String etag = categoryService.findVersion(id)
+                .map(version -> ConditionalResponses.etag("category-" + id,
+                        version + "." + categoryService.getById(id).getBookCount()))
+                .orElse(null);
+        return ConditionalResponses.ifNoneMatch(request, etag,
+                () -> categoryService.getById(id));
+    }
+
+    @Operation(summary = "Get subcategories",
+            description = "Returns the direct children of the specified category. "
+                    + "Available for USER and ADMIN.")
+    @GetMapping("/{id}/children")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public List<CategoryDto> getChildren(@PathVariable Long id) {
+        return categoryService.getChildren(id);
+    }
+
+    @Operation(summary = "Get category breadcrumb",
+            description = "Returns the categories from the root down to the specified "
+                    + "category. Available for USER and ADMIN.")
+    @GetMapping("/{id}/path")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public List<CategoryDto> getPath(@PathVariable Long id) {
+        return categoryService.getPath(id);
     }
 
     @Operation(summary = "Update a category",
-            description = "Updates category information by ID. Available for ADMIN only.")
+            description = "Updates category information by ID. A new parentId moves the "
+                    + "category with its subcategories. Available for ADMIN only.")
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @ResponseStatus(HttpStatus.OK)
@@ -63,8 +106,19 @@ public class CategoryController {
         return categoryService.update(id, dto);
     }
 
+    @Operation(summary = "Move a category to the root",
+            description = "Clears the parent of the category and moves it with its "
+                    + "subcategories to the top level. Available for ADMIN only.")
+    @DeleteMapping("/{id}/parent")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.OK)
+    public CategoryDto moveToRoot(@PathVariable Long id) {
+        return categoryService.moveToRoot(id);
+    }
+
     @Operation(summary = "Delete a category",
-            description = "Deletes a category by its ID. Available for ADMIN only.")
+            description = "Deletes a category by its ID. Categories with subcategories "
+                    + "can't be deleted. Available for ADMIN only.")
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -73,11 +127,16 @@ public class CategoryController {
     }
 
     @Operation(summary = "Get books by category ID",
-            description = "Returns a list of books for the specified category. "
-                    + "Available for USER and ADMIN.")
+            description = "Returns the page of books in the specified category and its "
+                    + "subcategories after the given opaque cursor together with next/prev "
+                    + "cursors. Sortable by id, title or price. Available for USER and ADMIN.")
     @GetMapping("/{id}/books")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(@PathVariable Long id) {
-        return categoryService.getBooksByCategoryId(id);
+    public CursorPageDto<BookDtoWithoutCategoryIds> getBooksByCategoryId(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "") String after,
+            @RequestParam(defaultValue = "" + KeysetCursorCodec.DEFAULT_PAGE_SIZE) int size,
+            @SortDefault(sort = "id") Sort sort) {
+        return categoryService.getBooksByCategoryId(id, after, size, sort);
     }
 }
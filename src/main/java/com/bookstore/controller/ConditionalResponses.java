@@ -0,0 +1,32 @@
+package com.bookstore.controller;
+
+import java.util.function.Supplier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+final class ConditionalResponses {
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private ConditionalResponses() {
+    }
+
+    static String etag(String resource, Object version) {
+        return "\"" + resource + "-" + version + "\"";
+    }
+
+    static <T> ResponseEntity<T> ifNoneMatch(WebRequest request, String etag, Supplier<T> body) {
+        if (etag != null && request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CACHE_CONTROL)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(body.get());
+    }
+}
@@ -0,0 +1,127 @@
+package com.bookstore.controller;
+
+import com.bookstore.service.CoverImageService;
+import com.bookstore.service.ThumbnailSize;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RestController
+@RequestMapping("/covers")
+@RequiredArgsConstructor
+@Tag(name = "Covers", description = "Endpoints for serving book cover images")
+public class CoverController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic()
+            .immutable()
+            .getHeaderValue();
+
+    private final CoverImageService coverImageService;
+
+    @Operation(summary = "Get a cover image",
+            description = "Serves a stored cover by its content hash name. Supports single "
+                    + "byte ranges, If-None-Match and If-Modified-Since; responses are "
+                    + "immutable and cacheable for a year")
+    @GetMapping("/{name}")
+    public void getCover(@PathVariable String name, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        serve(coverImageService.findCover(name), request, response);
+    }
+
+    @Operation(summary = "Get a cover thumbnail",
+            description = "Serves a pre-sized cover variant (small, medium or large) from the "
+                    + "thumbnail cache. While the variant is still being generated, "
+                    + "redirects to the original cover")
+    @GetMapping("/{name}/{size}")
+    public void getThumbnail(@PathVariable String name, @PathVariable ThumbnailSize size,
+                             HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Optional<CoverImageService.CoverFile> thumbnail =
+                coverImageService.findThumbnail(name, size);
+        if (thumbnail.isEmpty()) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore()
+                    .getHeaderValue());
+            response.setHeader(HttpHeaders.LOCATION, ServletUriComponentsBuilder
+                    .fromContextPath(request)
+                    .path(CoverImageService.COVERS_PATH + "{name}")
+                    .buildAndExpand(name)
+                    .toUriString());
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            return;
+        }
+        serve(thumbnail.get(), request, response);
+    }
+
+    private void serve(CoverImageService.CoverFile cover, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response)
+                .checkNotModified(cover.etag(), cover.lastModified())) {
+            return;
+        }
+        long start = 0;
+        long count = cover.length();
+        HttpRange range = requestedRange(request, cover);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(cover.length());
+                count = range.getRangeEnd(cover.length()) - start + 1;
+            } catch (IllegalArgumentException e) {
+                count = 0;
+            }
+            if (count <= 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + cover.length());
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-"
+                    + (start + count - 1) + "/" + cover.length());
+        }
+        response.setContentType(cover.contentType().toString());
+        response.setContentLengthLong(count);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, cover.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        coverImageService.transfer(cover, start, count, response.getOutputStream());
+    }
+
+    private static HttpRange requestedRange(HttpServletRequest request,
+                                            CoverImageService.CoverFile cover) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (header == null || ifRange != null && !ifRange.equals(cover.etag())) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
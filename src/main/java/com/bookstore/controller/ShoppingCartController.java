@@ -1,8 +1,10 @@
 package com.bookstore.controller;
 
 import com.bookstore.dto.ShoppingCartResponseDto;
+import com.bookstore.dto.cart.CartDeltaResponseDto;
 import com.bookstore.dto.cart.CartItemRequestDto;
 import com.bookstore.dto.cart.CartItemUpdateRequestDto;
+import com.bookstore.dto.cart.CartOperationsRequestDto;
 import com.bookstore.service.ShoppingCartService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
@@ -11,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -46,6 +49,29 @@ public class ShoppingCartController {
         return shoppingCartService.addItemToCart(requestDto);
     }
 
+    @Operation(summary = "Add item to shopping cart and return only the change",
+            description = "Same as adding an item, but responds with the changed cart item, "
+                    + "the cart version and the cart totals instead of the whole cart.")
+    @PostMapping(params = "view=delta")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CartDeltaResponseDto addItemToCartDelta(@RequestBody
+                                                       @Valid CartItemRequestDto requestDto) {
+        return shoppingCartService.addItemToCartDelta(requestDto);
+    }
+
+    @Operation(summary = "Apply several cart operations at once",
+            description = "Applies an ordered list of ADD (bookId, quantity), UPDATE "
+                    + "(cartItemId, quantity) and REMOVE (cartItemId) operations in one "
+                    + "transaction and returns the resulting cart. Nothing is applied if any "
+                    + "operation fails.")
+    @PatchMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ShoppingCartResponseDto applyOperations(
+            @RequestBody @Valid CartOperationsRequestDto requestDto) {
+        return shoppingCartService.applyOperations(requestDto.operations());
+    }
+
     @Operation(summary = "Update cart item quantity",
             description = "Updates the quantity of a"
                     + " specific item in the shopping cart.")
@@ -58,6 +84,18 @@ public class ShoppingCartController {
         return shoppingCartService.updateCartItemQuantity(cartItemId, requestDto);
     }
 
+    @Operation(summary = "Update cart item quantity and return only the change",
+            description = "Same as updating a cart item, but responds with the changed cart "
+                    + "item, the cart version and the cart totals instead of the whole cart.")
+    @PutMapping(value = "/items/{cartItemId}", params = "view=delta")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public CartDeltaResponseDto updateCartItemDelta(
+            @PathVariable Long cartItemId,
+            @RequestBody @Valid CartItemUpdateRequestDto requestDto
+    ) {
+        return shoppingCartService.updateCartItemQuantityDelta(cartItemId, requestDto);
+    }
+
     @Operation(summary = "Remove item from shopping cart",
             description = "Deletes a specific item from the shopping cart.")
     @DeleteMapping("/items/{cartItemId}")
@@ -13,4 +13,8 @@ public class CategoryDto {
     private String name;
 
     private String description;
+
+    private Long parentId;
+
+    private long bookCount;
 }
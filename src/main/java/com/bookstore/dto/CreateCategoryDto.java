@@ -1,6 +1,7 @@
 package com.bookstore.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.experimental.Accessors;
@@ -14,4 +15,6 @@ public class CreateCategoryDto {
     private String name;
     @Size(max = 255, message = "Description must be at most 255 characters")
     private String description;
+    @Positive(message = "Parent category id must be positive")
+    private Long parentId;
 }
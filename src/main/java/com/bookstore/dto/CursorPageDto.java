@@ -0,0 +1,10 @@
+package com.bookstore.dto;
+
+import java.util.List;
+
+public record CursorPageDto<T>(
+        List<T> content,
+        String nextCursor,
+        String prevCursor,
+        int size
+) {}
@@ -0,0 +1,16 @@
+package com.bookstore.dto.book;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(exclude = "id")
+public class BookCategoryDto {
+    private Long id;
+
+    private String name;
+
+    private String description;
+}
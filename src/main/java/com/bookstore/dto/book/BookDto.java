@@ -1,6 +1,5 @@
 package com.bookstore.dto.book;
 
-import com.bookstore.dto.CategoryDto;
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
@@ -19,5 +18,5 @@ public class BookDto {
     private BigDecimal price;
     private String description;
     private String coverImage;
-    private Set<CategoryDto> categories = new HashSet<>();
+    private Set<BookCategoryDto> categories = new HashSet<>();
 }
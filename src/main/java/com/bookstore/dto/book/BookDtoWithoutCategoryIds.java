@@ -1,11 +1,15 @@
 package com.bookstore.dto.book;
 
 import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 
 @Data
 @EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
 public class BookDtoWithoutCategoryIds {
     private Long id;
     private String title;
@@ -0,0 +1,11 @@
+package com.bookstore.dto.book;
+
+import java.util.List;
+import org.springframework.data.domain.Slice;
+
+public record BookFacetsDto(
+        Slice<BookDto> books,
+        List<FacetCountDto> categories,
+        List<FacetCountDto> prices,
+        List<FacetCountDto> authors
+) {}
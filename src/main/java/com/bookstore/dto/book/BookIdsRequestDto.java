@@ -0,0 +1,15 @@
+package com.bookstore.dto.book;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class BookIdsRequestDto {
+
+    @NotEmpty(message = "Book ids must not be empty")
+    private List<@NotNull(message = "Book id must not be null") Long> ids;
+}
@@ -0,0 +1,7 @@
+package com.bookstore.dto.book;
+
+public record BookImportErrorDto(
+        long row,
+        String isbn,
+        String message
+) {}
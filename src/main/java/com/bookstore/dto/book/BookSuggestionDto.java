@@ -0,0 +1,11 @@
+package com.bookstore.dto.book;
+
+public record BookSuggestionDto(
+        String text,
+        Type type
+) {
+    public enum Type {
+        TITLE,
+        AUTHOR
+    }
+}
@@ -0,0 +1,7 @@
+package com.bookstore.dto.book;
+
+public record FacetCountDto(
+        String value,
+        String label,
+        long count
+) {}
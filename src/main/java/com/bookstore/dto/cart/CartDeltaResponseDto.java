@@ -0,0 +1,13 @@
+package com.bookstore.dto.cart;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CartDeltaResponseDto(
+        Long cartId,
+        Long version,
+        List<CartItemResponseDto> changedItems,
+        long itemCount,
+        long totalQuantity,
+        BigDecimal totalPrice
+) {}
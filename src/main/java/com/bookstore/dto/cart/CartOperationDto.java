@@ -0,0 +1,21 @@
+package com.bookstore.dto.cart;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record CartOperationDto(
+        @NotNull
+        Type type,
+        @Positive
+        Long bookId,
+        @Positive
+        Long cartItemId,
+        @Positive
+        Integer quantity
+) {
+    public enum Type {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+}
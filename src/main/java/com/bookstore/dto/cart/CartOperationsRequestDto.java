@@ -0,0 +1,13 @@
+package com.bookstore.dto.cart;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record CartOperationsRequestDto(
+        @NotEmpty
+        @Size(max = 500)
+        List<@NotNull @Valid CartOperationDto> operations
+) {}
@@ -0,0 +1,7 @@
+package com.bookstore.exception;
+
+public class CategoryHierarchyException extends RuntimeException {
+    public CategoryHierarchyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.bookstore.exception;
+
+public class DuplicateIsbnException extends RuntimeException {
+    public DuplicateIsbnException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.bookstore.exception;
+
+public class InvalidSearchParameterException extends RuntimeException {
+    public InvalidSearchParameterException(String message) {
+        super(message);
+    }
+}
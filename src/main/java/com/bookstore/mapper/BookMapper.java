@@ -1,7 +1,6 @@
 package com.bookstore.mapper;
 
 import com.bookstore.dto.book.BookDto;
-import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.bookstore.dto.book.CreateBookRequestDto;
 import com.bookstore.model.Book;
 import org.mapstruct.BeanMapping;
@@ -13,12 +12,10 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 @Mapper(componentModel = "spring")
 public interface BookMapper {
     BookDto toDto(Book book);
-    
+
     Book toModel(CreateBookRequestDto dto);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "categories", ignore = true)
     void updateBookFromDto(CreateBookRequestDto dto, @MappingTarget Book book);
-
-    BookDtoWithoutCategoryIds toDtoWithoutCategories(Book book);
 }
@@ -9,6 +9,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
@@ -23,7 +24,7 @@ import org.hibernate.annotations.SQLRestriction;
 @Entity
 @Getter
 @Setter
-@SQLDelete(sql = "UPDATE books SET deleted = true WHERE id=?")
+@SQLDelete(sql = "UPDATE books SET deleted = true WHERE id=? AND version=?")
 @SQLRestriction("deleted=false")
 @Accessors(chain = true)
 @Table(name = "books")
@@ -52,6 +53,9 @@ public class Book {
     @Column(nullable = false, columnDefinition = "TINYINT(1)")
     private boolean deleted = false;
 
+    @Version
+    private Long version;
+
     @ManyToMany
     @JoinTable(
             name = "books_categories",
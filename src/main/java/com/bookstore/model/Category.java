@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -14,7 +15,7 @@ import org.hibernate.annotations.SQLRestriction;
 
 @Entity
 @Table(name = "categories")
-@SQLDelete(sql = "UPDATE categories SET is_deleted = true WHERE id=?")
+@SQLDelete(sql = "UPDATE categories SET is_deleted = true WHERE id=? AND version=?")
 @SQLRestriction("is_deleted=false")
 @Accessors(chain = true)
 @Getter
@@ -30,6 +31,15 @@ public class Category {
 
     private String description;
 
+    @Column(name = "parent_id")
+    private Long parentId;
+
     @Column(nullable = false)
     private boolean isDeleted = false;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long bookCount;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,4 @@
+package com.bookstore.repository;
+
+public record BookCategoryLinkRow(Long bookId, Long categoryId) {
+}
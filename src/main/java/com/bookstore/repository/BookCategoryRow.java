@@ -0,0 +1,45 @@
+package com.bookstore.repository;
+
+import com.bookstore.dto.book.BookCategoryDto;
+import com.bookstore.dto.book.BookDto;
+import java.math.BigDecimal;
+
+public record BookCategoryRow(
+        Long id,
+        String title,
+        String author,
+        String isbn,
+        BigDecimal price,
+        String description,
+        String coverImage,
+        Long categoryId,
+        String categoryName,
+        String categoryDescription
+) {
+    public static final String SELECT = "select new com.bookstore.repository.BookCategoryRow("
+            + "b.id, b.title, b.author, b.isbn, b.price, b.description, b.coverImage, "
+            + "c.id, c.name, c.description) "
+            + "from Book b left join b.categories c ";
+
+    public BookDto toBookDto() {
+        return new BookDto()
+                .setId(id)
+                .setTitle(title)
+                .setAuthor(author)
+                .setIsbn(isbn)
+                .setPrice(price)
+                .setDescription(description)
+                .setCoverImage(coverImage);
+    }
+
+    public boolean hasCategory() {
+        return categoryId != null;
+    }
+
+    public BookCategoryDto toCategoryDto() {
+        return new BookCategoryDto()
+                .setId(categoryId)
+                .setName(categoryName)
+                .setDescription(categoryDescription);
+    }
+}
@@ -0,0 +1,14 @@
+package com.bookstore.repository;
+
+public record BookFacetRow(
+        Type type,
+        String value,
+        String label,
+        Long count
+) {
+    public enum Type {
+        CATEGORY,
+        PRICE,
+        AUTHOR
+    }
+}
@@ -0,0 +1,4 @@
+package com.bookstore.repository;
+
+public record BookIsbnRow(Long id, String isbn, boolean deleted) {
+}
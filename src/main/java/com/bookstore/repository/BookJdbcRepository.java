@@ -0,0 +1,92 @@
+package com.bookstore.repository;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class BookJdbcRepository {
+    private static final String INSERT_BOOK = "INSERT INTO books "
+            + "(title, author, isbn, price, description, cover_image, deleted) "
+            + "VALUES (?, ?, ?, ?, ?, ?, false)";
+    private static final String INSERT_BOOK_CATEGORY =
+            "INSERT INTO books_categories (book_id, category_id) VALUES (?, ?)";
+    private static final String SELECT_ALL_ISBNS = "SELECT id, isbn, deleted FROM books";
+    private static final String SELECT_BY_ISBN = SELECT_ALL_ISBNS + " WHERE isbn = ?";
+    private static final String SELECT_CATEGORY_LINKS = "SELECT bc.book_id, bc.category_id "
+            + "FROM books_categories bc "
+            + "JOIN books b ON b.id = bc.book_id AND b.deleted = false "
+            + "JOIN categories c ON c.id = bc.category_id AND c.is_deleted = false";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void forEachIsbn(Consumer<BookIsbnRow> consumer) {
+        jdbcTemplate.query(SELECT_ALL_ISBNS, rs -> {
+            consumer.accept(new BookIsbnRow(
+                    rs.getLong("id"), rs.getString("isbn"), rs.getBoolean("deleted")));
+        });
+    }
+
+    public Optional<BookIsbnRow> findByIsbn(String isbn) {
+        return jdbcTemplate.query(SELECT_BY_ISBN, (rs, rowNum) -> new BookIsbnRow(
+                rs.getLong("id"), rs.getString("isbn"), rs.getBoolean("deleted")), isbn)
+                .stream()
+                .findFirst();
+    }
+
+    public void forEachCategoryLink(Consumer<BookCategoryLinkRow> consumer) {
+        jdbcTemplate.query(SELECT_CATEGORY_LINKS, rs -> {
+            consumer.accept(new BookCategoryLinkRow(
+                    rs.getLong("book_id"), rs.getLong("category_id")));
+        });
+    }
+
+    public void insertAll(List<Book> books) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_BOOK, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Book book = books.get(i);
+                        ps.setString(1, book.getTitle());
+                        ps.setString(2, book.getAuthor());
+                        ps.setString(3, book.getIsbn());
+                        ps.setBigDecimal(4, book.getPrice());
+                        ps.setString(5, book.getDescription());
+                        ps.setString(6, book.getCoverImage());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return books.size();
+                    }
+                },
+                keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Object[]> links = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            book.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            for (Category category : book.getCategories()) {
+                links.add(new Object[] {book.getId(), category.getId()});
+            }
+        }
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BOOK_CATEGORY, links);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.bookstore.repository;
+
+import java.math.BigDecimal;
+
+public interface BookKeysetRow {
+    Long getId();
+
+    String getTitle();
+
+    BigDecimal getPrice();
+}
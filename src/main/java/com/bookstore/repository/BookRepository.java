@@ -1,11 +1,49 @@
 package com.bookstore.repository;
 
 import com.bookstore.model.Book;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+        BookRepositoryCustom {
 
-    List<Book> findAllByCategories_Id(Long categoryId);
+    @Query(value = "select b.id from Book b", countQuery = "select count(b) from Book b")
+    Page<Long> findPageOfIds(Pageable pageable);
+
+    @Query("select b.id from Book b join b.categories c where c.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query("select c.id from Book b join b.categories c where b.id = :id")
+    List<Long> findCategoryIdsById(@Param("id") Long id);
+
+    @Query("select new com.bookstore.repository.BookTextRow("
+            + "b.id, b.title, b.author, b.description) from Book b")
+    Stream<BookTextRow> streamTextRows();
+
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update Book b set b.version = b.version + 1 where b.id in :ids")
+    int incrementVersions(@Param("ids") Collection<Long> ids);
+
+    Window<Book> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<BookKeysetRow> findDistinctByCategoriesIdIn(
+            Collection<Long> categoryIds, ScrollPosition position, Sort sort, Limit limit);
 }
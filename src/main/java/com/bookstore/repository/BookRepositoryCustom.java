@@ -0,0 +1,25 @@
+package com.bookstore.repository;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.model.Book;
+import com.bookstore.repository.book.PriceRange;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BookRepositoryCustom {
+    Page<Long> findIds(Specification<Book> spec, Pageable pageable);
+
+    Slice<Long> findIdSlice(Specification<Book> spec, Pageable pageable);
+
+    List<BookDto> findDtosByIds(Collection<Long> ids);
+
+    List<BookDtoWithoutCategoryIds> findSummariesByIds(Collection<Long> ids);
+
+    List<BookFacetRow> findFacets(Specification<Book> spec, List<PriceRange> buckets,
+                                  int maxAuthors);
+}
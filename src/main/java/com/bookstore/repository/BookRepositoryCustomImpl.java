@@ -0,0 +1,208 @@
+package com.bookstore.repository;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import com.bookstore.repository.book.PriceRange;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+    private static final String FIND_BY_IDS = BookCategoryRow.SELECT + "where b.id in :ids";
+    private static final String FIND_SUMMARIES_BY_IDS =
+            "select new com.bookstore.dto.book.BookDtoWithoutCategoryIds("
+            + "b.id, b.title, b.author, b.price, b.description) from Book b where b.id in :ids";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Long> findIds(Specification<Book> spec, Pageable pageable) {
+        List<Long> ids = idQuery(spec, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(ids, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<Long> findIdSlice(Specification<Book> spec, Pageable pageable) {
+        List<Long> ids = idQuery(spec, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids,
+                pageable, hasNext);
+    }
+
+    @Override
+    public List<BookDto> findDtosByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<BookCategoryRow> rows = entityManager
+                .createQuery(FIND_BY_IDS, BookCategoryRow.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        Map<Long, BookDto> books = new HashMap<>();
+        for (BookCategoryRow row : rows) {
+            BookDto book = books.computeIfAbsent(row.id(), id -> row.toBookDto());
+            if (row.hasCategory()) {
+                book.getCategories().add(row.toCategoryDto());
+            }
+        }
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> findSummariesByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookDtoWithoutCategoryIds> books = new HashMap<>();
+        entityManager.createQuery(FIND_SUMMARIES_BY_IDS, BookDtoWithoutCategoryIds.class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(book -> books.put(book.getId(), book));
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public List<BookFacetRow> findFacets(Specification<Book> spec, List<PriceRange> buckets,
+                                         int maxAuthors) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        JpaCriteriaQuery<Tuple> query = cb.unionAll(categoryFacets(spec, cb),
+                priceFacets(spec, buckets, cb), authorFacets(spec, maxAuthors, cb));
+        List<BookFacetRow> facets = new ArrayList<>();
+        BookFacetRow[] prices = new BookFacetRow[buckets.size()];
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            BookFacetRow.Type type = BookFacetRow.Type.values()[row.get(0, Integer.class)];
+            Long key = row.get(1, Long.class);
+            String label = row.get(2, String.class);
+            Long count = row.get(3, Long.class);
+            switch (type) {
+                case CATEGORY -> facets.add(new BookFacetRow(type, key.toString(), label, count));
+                case PRICE -> {
+                    String range = buckets.get(key.intValue()).toString();
+                    prices[key.intValue()] = new BookFacetRow(type, range, range, count);
+                }
+                default -> facets.add(new BookFacetRow(type, label, label, count));
+            }
+        }
+        Arrays.stream(prices)
+                .filter(Objects::nonNull)
+                .forEach(facets::add);
+        return facets;
+    }
+
+    private JpaCriteriaQuery<Tuple> categoryFacets(Specification<Book> spec,
+                                                   HibernateCriteriaBuilder cb) {
+        JpaCriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        Join<Book, Category> category = root.join("categories");
+        query.multiselect(cb.literal(BookFacetRow.Type.CATEGORY.ordinal()),
+                category.<Long>get("id"), category.<String>get("name"), cb.count(root));
+        where(spec, root, query, cb);
+        query.groupBy(category.get("id"), category.get("name"));
+        return query;
+    }
+
+    private JpaCriteriaQuery<Tuple> priceFacets(Specification<Book> spec,
+                                                List<PriceRange> buckets,
+                                                HibernateCriteriaBuilder cb) {
+        JpaCriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        Path<BigDecimal> price = root.get("price");
+        CriteriaBuilder.Case<Long> bucket = cb.selectCase();
+        for (int i = 0; i < buckets.size() - 1; i++) {
+            bucket = bucket.when(cb.lessThan(price, cb.literal(buckets.get(i).max())),
+                    cb.literal((long) i));
+        }
+        Expression<Long> index = bucket.otherwise(cb.literal((long) buckets.size() - 1));
+        query.multiselect(cb.literal(BookFacetRow.Type.PRICE.ordinal()), index,
+                cb.nullLiteral(String.class), cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        query.where(predicate == null
+                ? cb.isNotNull(price)
+                : cb.and(predicate, cb.isNotNull(price)));
+        query.groupBy(index);
+        return query;
+    }
+
+    private JpaCriteriaQuery<Tuple> authorFacets(Specification<Book> spec, int maxAuthors,
+                                                 HibernateCriteriaBuilder cb) {
+        JpaCriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        Expression<Long> books = cb.count(root);
+        query.multiselect(cb.literal(BookFacetRow.Type.AUTHOR.ordinal()),
+                cb.nullLiteral(Long.class), root.<String>get("author"), books);
+        where(spec, root, query, cb);
+        query.groupBy(root.get("author"));
+        query.orderBy(cb.desc(books), cb.asc(root.get("author")));
+        query.fetch(maxAuthors);
+        return query;
+    }
+
+    private TypedQuery<Long> idQuery(Specification<Book> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(root.get("id"));
+        where(spec, root, query, cb);
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Book> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(cb.count(root));
+        where(spec, root, query, cb);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private void where(Specification<Book> spec, Root<Book> root, CriteriaQuery<?> query,
+                       CriteriaBuilder cb) {
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.bookstore.repository;
+
+public record BookSalesRow(
+        Long bookId,
+        Long quantity
+) {}
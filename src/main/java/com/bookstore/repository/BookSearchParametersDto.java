@@ -4,6 +4,9 @@ import java.util.List;
 
 public record BookSearchParametersDto(List<String> titles,
                                       List<String> authors,
-                                      List<String> isbns) {
+                                      List<String> isbns,
+                                      List<Long> categoryIds,
+                                      List<String> prices,
+                                      String categories) {
 
 }
@@ -0,0 +1,8 @@
+package com.bookstore.repository;
+
+public record BookTextRow(
+        Long id,
+        String title,
+        String author,
+        String description
+) {}
@@ -1,9 +1,36 @@
 package com.bookstore.repository;
 
 import com.bookstore.model.CartItem;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+    @EntityGraph(attributePaths = "book")
     Optional<CartItem> findByIdAndShoppingCartId(Long id, Long shoppingCartId);
+
+    @EntityGraph(attributePaths = "book")
+    Optional<CartItem> findByShoppingCartIdAndBookId(Long shoppingCartId, Long bookId);
+
+    List<CartItem> findAllByShoppingCartId(Long shoppingCartId);
+
+    @Query("select new com.bookstore.repository.CartTotalsRow("
+            + "count(ci), sum(ci.quantity), sum(ci.quantity * b.price)) "
+            + "from CartItem ci join ci.book b where ci.shoppingCart.id = :cartId")
+    CartTotalsRow findTotals(@Param("cartId") Long cartId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update CartItem ci set ci.quantity = ci.quantity + :quantity, "
+            + "ci.version = ci.version + 1 "
+            + "where ci.shoppingCart.id = :cartId and ci.book.id = :bookId")
+    int incrementQuantity(@Param("cartId") Long cartId, @Param("bookId") Long bookId,
+                          @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from CartItem ci where ci.id = :id and ci.shoppingCart.id = :cartId")
+    int deleteByIdAndCartId(@Param("id") Long id, @Param("cartId") Long cartId);
 }
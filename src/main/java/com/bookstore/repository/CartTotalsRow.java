@@ -0,0 +1,9 @@
+package com.bookstore.repository;
+
+import java.math.BigDecimal;
+
+public record CartTotalsRow(
+        Long items,
+        Long quantity,
+        BigDecimal price
+) {}
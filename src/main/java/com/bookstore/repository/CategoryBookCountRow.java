@@ -0,0 +1,6 @@
+package com.bookstore.repository;
+
+public record CategoryBookCountRow(
+        Long id,
+        long bookCount
+) {}
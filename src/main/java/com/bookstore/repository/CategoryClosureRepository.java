@@ -0,0 +1,41 @@
+package com.bookstore.repository;
+
+import com.bookstore.model.CategoryClosure;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface CategoryClosureRepository
+        extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) "
+            + "VALUES (:id, :id, 0)", nativeQuery = true)
+    int insertSelf(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) "
+            + "SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1 "
+            + "FROM category_closure a JOIN category_closure d ON d.ancestor_id = :id "
+            + "WHERE a.descendant_id = :parentId", nativeQuery = true)
+    int attachSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM category_closure WHERE descendant_id IN (:subtreeIds) "
+            + "AND ancestor_id NOT IN (:subtreeIds)", nativeQuery = true)
+    int detachSubtree(@Param("subtreeIds") Collection<Long> subtreeIds);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM category_closure WHERE descendant_id = :id",
+            nativeQuery = true)
+    int deleteLeaf(@Param("id") Long id);
+}
@@ -1,10 +1,39 @@
 package com.bookstore.repository;
 
 import com.bookstore.model.Category;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    String LIVE_BOOK_COUNT = "(SELECT COUNT(*) FROM books_categories bc "
+            + "JOIN books b ON b.id = bc.book_id "
+            + "WHERE bc.category_id = categories.id AND b.deleted = false)";
 
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE categories SET book_count = book_count + :delta "
+            + "WHERE id IN (:ids)", nativeQuery = true)
+    int adjustBookCounts(@Param("ids") Collection<Long> ids, @Param("delta") long delta);
+
+    @Query("SELECT new com.bookstore.repository.CategoryBookCountRow(c.id, c.bookCount) "
+            + "FROM Category c WHERE c.id IN :ids")
+    List<CategoryBookCountRow> findBookCounts(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT COUNT(*) FROM categories WHERE book_count <> " + LIVE_BOOK_COUNT,
+            nativeQuery = true)
+    long countDriftedBookCounts();
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE categories SET book_count = " + LIVE_BOOK_COUNT
+            + " WHERE book_count <> " + LIVE_BOOK_COUNT,
+            nativeQuery = true)
+    int recountBooks();
 }
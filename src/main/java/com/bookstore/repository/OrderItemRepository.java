@@ -5,6 +5,7 @@ import com.bookstore.model.OrderItem;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,4 +13,8 @@ public interface OrderItemRepository extends JpaRepository<OrderItem,Long> {
     List<OrderItem> findAllByOrder(Order order);
 
     Optional<OrderItem> findByIdAndOrderId(Long id, Long orderId);
+
+    @Query("select new com.bookstore.repository.BookSalesRow(oi.book.id, sum(oi.quantity)) "
+            + "from OrderItem oi group by oi.book.id")
+    List<BookSalesRow> findBookSales();
 }
@@ -1,12 +1,11 @@
 package com.bookstore.repository;
 
 import com.bookstore.model.Order;
-import com.bookstore.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    Page<Order> findAllByUser(User user, Pageable pageable);
+    Page<Order> findAllByUserId(Long userId, Pageable pageable);
 
 }
@@ -5,10 +5,25 @@ import com.bookstore.model.User;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
     @EntityGraph(attributePaths = {"cartItems", "cartItems.book"})
-    Optional<ShoppingCart> findByUser(User user);
+    Optional<ShoppingCart> findByUserId(Long userId);
 
     boolean existsByUser(User user);
+
+    @Query("select c.version from ShoppingCart c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ShoppingCart c set c.version = c.version + 1 where c.id = :id")
+    int incrementVersion(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ShoppingCart c set c.version = c.version + 1 "
+            + "where c.id = :id and c.version = :version")
+    int incrementVersion(@Param("id") Long id, @Param("version") Long version);
 }
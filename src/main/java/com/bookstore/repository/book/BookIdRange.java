@@ -0,0 +1,4 @@
+package com.bookstore.repository.book;
+
+public record BookIdRange(long first, long last) {
+}
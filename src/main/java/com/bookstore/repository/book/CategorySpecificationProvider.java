@@ -0,0 +1,67 @@
+package com.bookstore.repository.book;
+
+import com.bookstore.exception.InvalidSearchParameterException;
+import com.bookstore.model.Book;
+import com.bookstore.repository.SpecificationProvider;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component("category")
+public class CategorySpecificationProvider implements SpecificationProvider<Book> {
+    public static final String KEY = "category";
+
+    @Override
+    public String getKey() {
+        return KEY;
+    }
+
+    @Override
+    public Specification<Book> getSpecification(List<String> categoryIds) {
+        List<Long> ids;
+        try {
+            ids = categoryIds.stream()
+                    .map(Long::valueOf)
+                    .toList();
+        } catch (NumberFormatException e) {
+            throw new InvalidSearchParameterException("Invalid category ids " + categoryIds);
+        }
+        return inCategories(ids);
+    }
+
+    public static Specification<Book> inCategories(List<Long> ids) {
+        return (root, query, cb) -> {
+            Subquery<Long> member = query.subquery(Long.class);
+            Root<Book> book = member.from(Book.class);
+            member.select(book.get("id"))
+                    .where(book.join("categories").get("id").in(ids));
+            return root.get("id").in(member);
+        };
+    }
+
+    public static Specification<Book> inIdRanges(List<BookIdRange> ranges) {
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            List<Long> singles = new ArrayList<>();
+            List<Predicate> predicates = new ArrayList<>();
+            for (BookIdRange range : ranges) {
+                if (range.first() == range.last()) {
+                    singles.add(range.first());
+                } else {
+                    predicates.add(cb.between(id, range.first(), range.last()));
+                }
+            }
+            if (!singles.isEmpty()) {
+                predicates.add(id.in(singles));
+            }
+            return predicates.isEmpty()
+                    ? cb.disjunction()
+                    : cb.or(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.bookstore.repository.book;
+
+import com.bookstore.exception.InvalidSearchParameterException;
+import java.math.BigDecimal;
+
+public record PriceRange(BigDecimal min, BigDecimal max) {
+    private static final String SEPARATOR = "-";
+
+    public static PriceRange parse(String value) {
+        int separator = value.indexOf(SEPARATOR);
+        if (separator < 0 || separator != value.lastIndexOf(SEPARATOR)) {
+            throw new InvalidSearchParameterException("Price range '" + value
+                    + "' must look like 'min-max', '-max' or 'min-'");
+        }
+        try {
+            return new PriceRange(bound(value.substring(0, separator)),
+                    bound(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new InvalidSearchParameterException("Invalid price range '" + value + "'");
+        }
+    }
+
+    public boolean contains(BigDecimal price) {
+        return price != null
+                && (min == null || price.compareTo(min) >= 0)
+                && (max == null || price.compareTo(max) < 0);
+    }
+
+    @Override
+    public String toString() {
+        return format(min) + SEPARATOR + format(max);
+    }
+
+    private static BigDecimal bound(String value) {
+        return value.isBlank() ? null : new BigDecimal(value.trim());
+    }
+
+    private static String format(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.bookstore.repository.book;
+
+import com.bookstore.model.Book;
+import com.bookstore.repository.SpecificationProvider;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component("price")
+public class PriceSpecificationProvider implements SpecificationProvider<Book> {
+    public static final String KEY = "price";
+
+    @Override
+    public String getKey() {
+        return KEY;
+    }
+
+    @Override
+    public Specification<Book> getSpecification(List<String> ranges) {
+        List<PriceRange> parsed = ranges.stream()
+                .map(PriceRange::parse)
+                .toList();
+        return (root, query, cb) -> {
+            Path<BigDecimal> price = root.get("price");
+            Predicate[] alternatives = parsed.stream()
+                    .map(range -> {
+                        List<Predicate> bounds = new ArrayList<>();
+                        if (range.min() != null) {
+                            bounds.add(cb.greaterThanOrEqualTo(price, range.min()));
+                        }
+                        if (range.max() != null) {
+                            bounds.add(cb.lessThan(price, range.max()));
+                        }
+                        return cb.and(bounds.toArray(Predicate[]::new));
+                    })
+                    .toArray(Predicate[]::new);
+            return cb.or(alternatives);
+        };
+    }
+}
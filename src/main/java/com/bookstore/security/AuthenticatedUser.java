@@ -0,0 +1,35 @@
+package com.bookstore.security;
+
+import com.bookstore.model.Role;
+import com.bookstore.model.User;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+public record AuthenticatedUser(
+        Long id,
+        Long cartId,
+        String email,
+        Set<String> roles
+) implements AuthenticatedPrincipal {
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getId(), user.getEmail(),
+                user.getRoles().stream()
+                        .map(Role::getAuthority)
+                        .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return roles.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
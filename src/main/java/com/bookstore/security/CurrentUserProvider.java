@@ -0,0 +1,26 @@
+package com.bookstore.security;
+
+import com.bookstore.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CurrentUserProvider {
+    private final UserRepository userRepository;
+
+    public AuthenticatedUser get() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        String email = authentication.getName();
+        return userRepository.findByEmail(email)
+                .map(AuthenticatedUser::of)
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "User not found with email: " + email));
+    }
+}
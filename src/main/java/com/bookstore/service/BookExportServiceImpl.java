@@ -0,0 +1,95 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.repository.BookCategoryRow;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.stream.Collectors;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class BookExportServiceImpl implements BookExportService {
+    private static final String EXPORT_QUERY = BookCategoryRow.SELECT + "order by b.id";
+    private static final String CATEGORY_IDS_SEPARATOR = ";";
+
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final int fetchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookExportServiceImpl(ObjectMapper objectMapper,
+                                 @Value("${bookstore.export.fetch-size}") int fetchSize) {
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBooks(Format format, OutputStream out) throws IOException {
+        Session session = entityManager.unwrap(Session.class);
+        try (ScrollableResults<BookCategoryRow> rows = session
+                .createSelectionQuery(EXPORT_QUERY, BookCategoryRow.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+                SequenceWriter writer = openWriter(format, out)) {
+            BookDto current = null;
+            while (rows.next()) {
+                BookCategoryRow row = rows.get();
+                if (current == null || !current.getId().equals(row.id())) {
+                    write(writer, format, current);
+                    current = row.toBookDto();
+                }
+                if (row.hasCategory()) {
+                    current.getCategories().add(row.toCategoryDto());
+                }
+            }
+            write(writer, format, current);
+        }
+    }
+
+    private SequenceWriter openWriter(Format format, OutputStream out) throws IOException {
+        if (format == Format.CSV) {
+            return csvMapper.writer(csvMapper.schemaFor(CsvRow.class).withHeader())
+                    .writeValues(out);
+        }
+        return objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+    }
+
+    private void write(SequenceWriter writer, Format format, BookDto book) throws IOException {
+        if (book == null) {
+            return;
+        }
+        writer.write(format == Format.CSV ? CsvRow.of(book) : book);
+    }
+
+    @JsonPropertyOrder({"id", "title", "author", "isbn", "price", "description", "coverImage",
+            "categoryIds"})
+    private record CsvRow(Long id, String title, String author, String isbn, BigDecimal price,
+                          String description, String coverImage, String categoryIds) {
+        static CsvRow of(BookDto book) {
+            return new CsvRow(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
+                    book.getPrice(), book.getDescription(), book.getCoverImage(),
+                    book.getCategories().stream()
+                            .map(category -> String.valueOf(category.getId()))
+                            .sorted()
+                            .collect(Collectors.joining(CATEGORY_IDS_SEPARATOR)));
+        }
+    }
+}
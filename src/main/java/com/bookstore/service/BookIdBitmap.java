@@ -0,0 +1,398 @@
+package com.bookstore.service;
+
+import com.bookstore.repository.book.BookIdRange;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+final class BookIdBitmap {
+    private static final int MAX_ARRAY_SIZE = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    BookIdBitmap() {
+        this.keys = new char[INITIAL_CAPACITY];
+        this.containers = new Container[INITIAL_CAPACITY];
+    }
+
+    void add(long id) {
+        int value = Math.toIntExact(id);
+        char key = (char) (value >>> 16);
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertAt(i, key, new ArrayContainer());
+        }
+        containers[i] = containers[i].add((char) value);
+    }
+
+    void remove(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            return;
+        }
+        int value = (int) id;
+        int i = indexOf((char) (value >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Container container = containers[i].remove((char) value);
+        if (container.cardinality() == 0) {
+            removeAt(i);
+        } else {
+            containers[i] = container;
+        }
+    }
+
+    boolean contains(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            return false;
+        }
+        int value = (int) id;
+        int i = indexOf((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    BookIdBitmap and(BookIdBitmap other) {
+        BookIdBitmap result = new BookIdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.insertAt(result.size, keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    BookIdBitmap or(BookIdBitmap other) {
+        BookIdBitmap result = new BookIdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || i < size && keys[i] < other.keys[j]) {
+                result.insertAt(result.size, keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.insertAt(result.size, other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.insertAt(result.size, keys[i],
+                        containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    List<Long> toList() {
+        List<Long> ids = new ArrayList<>((int) Math.min(cardinality(), Integer.MAX_VALUE));
+        for (int i = 0; i < size; i++) {
+            containers[i].collect((long) keys[i] << 16, ids);
+        }
+        return ids;
+    }
+
+    Optional<List<BookIdRange>> toRanges(int maxRanges) {
+        List<BookIdRange> ranges = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        long first = -1;
+        long last = -2;
+        for (int i = 0; i < size; i++) {
+            ids.clear();
+            containers[i].collect((long) keys[i] << 16, ids);
+            for (long id : ids) {
+                if (id != last + 1) {
+                    if (first >= 0) {
+                        ranges.add(new BookIdRange(first, last));
+                        if (ranges.size() > maxRanges) {
+                            return Optional.empty();
+                        }
+                    }
+                    first = id;
+                }
+                last = id;
+            }
+        }
+        if (first >= 0) {
+            ranges.add(new BookIdRange(first, last));
+        }
+        return ranges.size() > maxRanges ? Optional.empty() : Optional.of(ranges);
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertAt(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        abstract void collect(long high, List<Long> ids);
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[INITIAL_CAPACITY], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == MAX_ARRAY_SIZE) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values,
+                        Math.min(Math.max(cardinality * 2, INITIAL_CAPACITY), MAX_ARRAY_SIZE));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality())];
+            int count = 0;
+            for (int i = 0; i < cardinality && count < result.length; i++) {
+                if (other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (!(other instanceof ArrayContainer array)) {
+                return other.or(this);
+            }
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality
+                        || i < cardinality && values[i] < array.values[j]) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer merged = new ArrayContainer(result, count);
+            return count > MAX_ARRAY_SIZE ? merged.toBitmap() : merged;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        void collect(long high, List<Long> ids) {
+            for (int i = 0; i < cardinality; i++) {
+                ids.add(high | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+            }
+            return cardinality <= MAX_ARRAY_SIZE ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & 1L << value) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (!(other instanceof BitmapContainer bitmap)) {
+                return other.and(this);
+            }
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & bitmap.words[i];
+                count += Long.bitCount(result[i]);
+            }
+            BitmapContainer intersection = new BitmapContainer(result, count);
+            return count <= MAX_ARRAY_SIZE ? intersection.toArray() : intersection;
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = new BitmapContainer(words.clone(), cardinality);
+            if (other instanceof BitmapContainer bitmap) {
+                int count = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] |= bitmap.words[i];
+                    count += Long.bitCount(result.words[i]);
+                }
+                result.cardinality = count;
+            } else {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    result.add(array.values[i]);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void collect(long high, List<Long> ids) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    ids.add(high | (long) i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
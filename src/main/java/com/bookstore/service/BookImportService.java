@@ -0,0 +1,14 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.book.BookImportResultDto;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BookImportService {
+    String NDJSON = "application/x-ndjson";
+    String CSV = "text/csv";
+
+    BookImportResultDto importNdjson(InputStream in) throws IOException;
+
+    BookImportResultDto importCsv(InputStream in) throws IOException;
+}
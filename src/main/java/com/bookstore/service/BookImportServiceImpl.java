@@ -0,0 +1,251 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.book.BookImportErrorDto;
+import com.bookstore.dto.book.BookImportResultDto;
+import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.mapper.BookMapper;
+import com.bookstore.model.Book;
+import com.bookstore.model.Category;
+import com.bookstore.repository.BookJdbcRepository;
+import com.bookstore.repository.CategoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+@RequiredArgsConstructor
+public class BookImportServiceImpl implements BookImportService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final String CATEGORY_IDS_SEPARATOR = ";";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BookMapper bookMapper;
+    private final BookJdbcRepository bookJdbcRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryService categoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final BookTextIndex bookTextIndex;
+    private final BookSearchCache bookSearchCache;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final IsbnIndex isbnIndex;
+    private final CategoryBitmapIndex categoryBitmapIndex;
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    @Value("${bookstore.import.batch-size}")
+    private int batchSize;
+
+    @Override
+    public BookImportResultDto importNdjson(InputStream in) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(CreateBookRequestDto.class);
+        BufferedReader lines = new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8));
+        ImportRun run = new ImportRun();
+        long row = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.accept(row, reader.readValue(line));
+            } catch (JsonProcessingException e) {
+                run.reject(row, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    @Override
+    public BookImportResultDto importCsv(InputStream in) throws IOException {
+        MappingIterator<Map<String, String>> rows = csvMapper
+                .readerForMapOf(String.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(in);
+        ImportRun run = new ImportRun();
+        long row = 0;
+        long failedAt = -1;
+        while (true) {
+            row++;
+            Map<String, String> values;
+            try {
+                if (!rows.hasNextValue()) {
+                    break;
+                }
+                values = rows.nextValue();
+            } catch (JsonProcessingException | RuntimeJsonMappingException e) {
+                run.reject(row, null, "Malformed CSV row: " + e.getMessage());
+                long offset = rows.getParser().currentLocation().getCharOffset();
+                if (offset == failedAt) {
+                    break;
+                }
+                failedAt = offset;
+                continue;
+            }
+            try {
+                run.accept(row, fromCsv(values));
+            } catch (IllegalArgumentException e) {
+                run.reject(row, values.get("isbn"), "Malformed value: " + e.getMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    private CreateBookRequestDto fromCsv(Map<String, String> values) {
+        String price = values.get("price");
+        String categoryIds = values.get("categoryIds");
+        return new CreateBookRequestDto()
+                .setTitle(values.get("title"))
+                .setAuthor(values.get("author"))
+                .setIsbn(values.get("isbn"))
+                .setPrice(price == null || price.isBlank() ? null : new BigDecimal(price.trim()))
+                .setDescription(values.get("description"))
+                .setCoverImage(values.get("coverImage"))
+                .setCategoryIds(categoryIds == null || categoryIds.isBlank()
+                        ? Set.of()
+                        : Arrays.stream(categoryIds.split(CATEGORY_IDS_SEPARATOR))
+                                .map(String::trim)
+                                .map(Long::valueOf)
+                                .collect(Collectors.toSet()));
+    }
+
+    private BatchOutcome writeBatch(List<PendingRow> batch) {
+        Set<Long> requestedCategoryIds = batch.stream()
+                .flatMap(pending -> pending.dto().getCategoryIds().stream())
+                .collect(Collectors.toSet());
+        Set<Long> knownCategoryIds = categoryRepository.findAllById(requestedCategoryIds)
+                .stream()
+                .map(Category::getId)
+                .collect(Collectors.toSet());
+        Set<String> batchIsbns = new HashSet<>();
+        List<Book> books = new ArrayList<>(batch.size());
+        List<BookImportErrorDto> rejected = new ArrayList<>();
+        for (PendingRow pending : batch) {
+            CreateBookRequestDto dto = pending.dto();
+            if (!knownCategoryIds.containsAll(dto.getCategoryIds())) {
+                rejected.add(new BookImportErrorDto(pending.row(), dto.getIsbn(),
+                        "Unknown category ids: " + dto.getCategoryIds().stream()
+                                .filter(id -> !knownCategoryIds.contains(id))
+                                .toList()));
+            } else if (isbnIndex.isTaken(dto.getIsbn(), null)
+                    || !batchIsbns.add(IsbnIndex.normalize(dto.getIsbn()))) {
+                rejected.add(new BookImportErrorDto(pending.row(), dto.getIsbn(),
+                        "Book with isbn " + dto.getIsbn() + " already exists"));
+            } else {
+                Book book = bookMapper.toModel(dto);
+                book.setCategories(dto.getCategoryIds().stream()
+                        .map(id -> new Category().setId(id))
+                        .collect(Collectors.toSet()));
+                books.add(book);
+            }
+        }
+        if (!books.isEmpty()) {
+            bookJdbcRepository.insertAll(books);
+            categoryService.adjustBookCounts(books.stream()
+                    .flatMap(book -> book.getCategories().stream())
+                    .collect(Collectors.groupingBy(Category::getId, Collectors.counting())));
+        }
+        return new BatchOutcome(books, rejected);
+    }
+
+    private record PendingRow(long row, CreateBookRequestDto dto) {
+    }
+
+    private record BatchOutcome(List<Book> imported, List<BookImportErrorDto> rejected) {
+    }
+
+    private class ImportRun {
+        private final List<BookImportErrorDto> errors = new ArrayList<>();
+        private List<PendingRow> pending = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void accept(long row, CreateBookRequestDto dto) {
+            Set<ConstraintViolation<CreateBookRequestDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                reject(row, dto.getIsbn(), violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            pending.add(new PendingRow(row, dto));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String isbn, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BookImportErrorDto(row, isbn, message));
+            }
+        }
+
+        BookImportResultDto finish() {
+            flush();
+            return new BookImportResultDto(imported, failed, errors);
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<PendingRow> batch = pending;
+            pending = new ArrayList<>(batchSize);
+            try {
+                apply(transactionTemplate.execute(status -> writeBatch(batch)));
+            } catch (DataAccessException e) {
+                if (batch.size() == 1) {
+                    PendingRow failedRow = batch.get(0);
+                    reject(failedRow.row(), failedRow.dto().getIsbn(),
+                            "Database error: " + e.getMostSpecificCause().getMessage());
+                    return;
+                }
+                batch.forEach(single -> {
+                    pending.add(single);
+                    flush();
+                });
+            }
+        }
+
+        private void apply(BatchOutcome outcome) {
+            imported += outcome.imported().size();
+            outcome.imported().forEach(book -> isbnIndex.put(book.getIsbn(), book.getId()));
+            outcome.imported().forEach(bookTextIndex::index);
+            bookSuggestIndex.index(outcome.imported());
+            bookSearchCache.evict(outcome.imported());
+            outcome.imported().forEach(book -> categoryBitmapIndex.update(book.getId(),
+                    List.of(), book.getCategories().stream()
+                            .map(Category::getId)
+                            .toList()));
+            outcome.rejected().forEach(error ->
+                    reject(error.row(), error.isbn(), error.message()));
+        }
+    }
+}
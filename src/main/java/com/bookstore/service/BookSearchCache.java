@@ -0,0 +1,204 @@
+package com.bookstore.service;
+
+import com.bookstore.config.CacheConfig;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookSearchParametersDto;
+import com.bookstore.repository.book.PriceRange;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class BookSearchCache {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String ANY_BOOK = "*";
+    private static final int MIN_PRUNE_SIZE = 1024;
+    private final CacheManager cacheManager;
+    private final Map<String, Set<Key>> keysByField = new ConcurrentHashMap<>();
+    private final AtomicInteger tracked = new AtomicInteger();
+
+    public SearchIds get(BookSearchParametersDto params, Pageable pageable, boolean count,
+                         Supplier<SearchIds> loader) {
+        Cache cache = cacheManager.getCache(CacheConfig.BOOK_SEARCH_CACHE);
+        if (cache == null) {
+            return loader.get();
+        }
+        Key key = Key.of(params, pageable, count);
+        boolean[] loaded = new boolean[1];
+        try {
+            SearchIds ids = cache.get(key, () -> {
+                track(key);
+                loaded[0] = true;
+                return loader.get();
+            });
+            if (loaded[0]) {
+                track(key);
+            }
+            return ids;
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void evict(Collection<Book> books) {
+        if (books.isEmpty()
+                || !(cacheManager.getCache(CacheConfig.BOOK_SEARCH_CACHE)
+                        instanceof CaffeineCache cache)) {
+            return;
+        }
+        Map<Object, Object> entries = cache.getNativeCache().asMap();
+        for (Book book : books) {
+            for (String field : Key.fields(book)) {
+                Set<Key> keys = keysByField.getOrDefault(field, Set.of());
+                for (Key key : keys) {
+                    if (key.matches(book)) {
+                        entries.remove(key);
+                        keys.remove(key);
+                    } else if (!entries.containsKey(key)) {
+                        keys.remove(key);
+                    }
+                }
+                keysByField.computeIfPresent(field, (name, tracking) ->
+                        tracking.isEmpty() ? null : tracking);
+            }
+        }
+    }
+
+    private void track(Key key) {
+        for (String field : key.fields()) {
+            keysByField.compute(field, (name, keys) -> {
+                Set<Key> tracking = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                if (tracking.add(key)) {
+                    tracked.incrementAndGet();
+                }
+                return tracking;
+            });
+        }
+        if (cacheManager.getCache(CacheConfig.BOOK_SEARCH_CACHE) instanceof CaffeineCache cache
+                && tracked.get() > Math.max(MIN_PRUNE_SIZE,
+                        2 * cache.getNativeCache().estimatedSize())) {
+            prune(cache.getNativeCache().asMap());
+        }
+    }
+
+    private synchronized void prune(Map<Object, Object> entries) {
+        AtomicInteger remaining = new AtomicInteger();
+        for (String field : keysByField.keySet()) {
+            keysByField.computeIfPresent(field, (name, keys) -> {
+                keys.removeIf(key -> !entries.containsKey(key));
+                remaining.addAndGet(keys.size());
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+        tracked.set(remaining.get());
+    }
+
+    public record SearchIds(List<Long> ids, long total, boolean hasNext) {
+        public SearchIds {
+            ids = List.copyOf(ids);
+        }
+    }
+
+    record Key(List<String> titles, List<String> authors, List<String> isbns,
+               List<Long> categoryIds, List<String> prices, String categories,
+               Pageable pageable, boolean count) {
+        static Key of(BookSearchParametersDto params, Pageable pageable, boolean count) {
+            return new Key(canonical(params.titles()), canonical(params.authors()),
+                    canonical(params.isbns()), canonicalIds(params.categoryIds()),
+                    canonical(params.prices()), canonicalExpression(params.categories()),
+                    pageable, count);
+        }
+
+        List<String> fields() {
+            if (!titles.isEmpty()) {
+                return titles.stream().map(title -> "title:" + title).toList();
+            }
+            if (!authors.isEmpty()) {
+                return authors.stream().map(author -> "author:" + author).toList();
+            }
+            if (!isbns.isEmpty()) {
+                return isbns.stream().map(isbn -> "isbn:" + isbn).toList();
+            }
+            return List.of(ANY_BOOK);
+        }
+
+        static List<String> fields(Book book) {
+            List<String> fields = new ArrayList<>(4);
+            if (book.getTitle() != null) {
+                fields.add("title:" + normalize(book.getTitle()));
+            }
+            if (book.getAuthor() != null) {
+                fields.add("author:" + normalize(book.getAuthor()));
+            }
+            if (book.getIsbn() != null) {
+                fields.add("isbn:" + normalize(book.getIsbn()));
+            }
+            fields.add(ANY_BOOK);
+            return fields;
+        }
+
+        boolean matches(Book book) {
+            return matches(titles, book.getTitle())
+                    && matches(authors, book.getAuthor())
+                    && matches(isbns, book.getIsbn())
+                    && (prices.isEmpty() || prices.stream()
+                            .anyMatch(range -> PriceRange.parse(range).contains(book.getPrice())));
+        }
+
+        private static boolean matches(List<String> values, String field) {
+            return values.isEmpty()
+                    || field != null && values.contains(normalize(field));
+        }
+
+        private static List<String> canonical(List<String> values) {
+            if (values == null) {
+                return List.of();
+            }
+            return values.stream()
+                    .filter(Objects::nonNull)
+                    .map(Key::normalize)
+                    .distinct()
+                    .sorted()
+                    .toList();
+        }
+
+        private static List<Long> canonicalIds(List<Long> values) {
+            if (values == null) {
+                return List.of();
+            }
+            return values.stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .toList();
+        }
+
+        private static String canonicalExpression(String expression) {
+            return expression == null
+                    ? ""
+                    : WHITESPACE.matcher(normalize(expression).strip()).replaceAll(" ");
+        }
+
+        private static String normalize(String value) {
+            return value.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -1,26 +1,46 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.CursorPageDto;
+import com.bookstore.dto.book.BookBatchDto;
 import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookFacetsDto;
+import com.bookstore.dto.book.BookSuggestionDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
-import com.bookstore.model.Book;
 import com.bookstore.repository.BookSearchParametersDto;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 public interface BookService {
     BookDto createBook(CreateBookRequestDto requestDto);
 
     BookDto getBookById(Long id);
 
+    BookBatchDto getBooksByIds(Collection<Long> ids);
+
+    Optional<Long> findVersion(Long id);
+
+    BookDto getBookByIsbn(String isbn);
+
     Page<BookDto> findAll(Pageable pageable);
 
+    CursorPageDto<BookDto> findAll(String cursor, int size, Sort sort);
+
     void deleteBook(Long id);
 
     BookDto updateBook(Long id, CreateBookRequestDto dto);
 
-    List<Book> searchBooks(BookSearchParametersDto params);
+    BookDto updateCoverImage(Long id, String coverImage);
+
+    Slice<BookDto> searchBooks(BookSearchParametersDto params, Pageable pageable, boolean count);
+
+    List<BookDto> searchBooks(String query, int size);
 
-    BookDto mapToDto(Book book);
+    List<BookSuggestionDto> suggest(String prefix, int size);
 
+    BookFacetsDto searchFacets(BookSearchParametersDto params, Pageable pageable);
 }
@@ -1,24 +1,57 @@
 package com.bookstore.service;
 
+import com.bookstore.config.CacheConfig;
+import com.bookstore.dto.CursorPageDto;
+import com.bookstore.dto.book.BookBatchDto;
 import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookFacetsDto;
+import com.bookstore.dto.book.BookSuggestionDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.dto.book.FacetCountDto;
+import com.bookstore.exception.DuplicateIsbnException;
 import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.exception.InvalidSearchParameterException;
 import com.bookstore.mapper.BookMapper;
 import com.bookstore.model.Book;
 import com.bookstore.model.Category;
+import com.bookstore.repository.BookFacetRow;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.BookSearchParametersDto;
 import com.bookstore.repository.BookSpecificationBuilder;
+import com.bookstore.repository.book.CategorySpecificationProvider;
+import com.bookstore.repository.book.PriceRange;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -26,57 +59,259 @@ public class BookServiceImpl implements BookService {
     public static final String AUTHOR = "author";
     public static final String ISBN = "isbn";
     public static final String TITLE = "title";
+    public static final String CATEGORY = "category";
+    public static final String PRICE = "price";
+    public static final Map<String, Class<?>> KEYSET_PROPERTIES = Map.of(
+            "id", Long.class,
+            TITLE, String.class,
+            AUTHOR, String.class,
+            PRICE, BigDecimal.class);
+    private static final int MAX_AUTHOR_FACETS = 20;
+    private static final Comparator<FacetCountDto> BY_COUNT =
+            Comparator.comparingLong(FacetCountDto::count).reversed()
+                    .thenComparing(FacetCountDto::label,
+                            Comparator.nullsLast(Comparator.naturalOrder()));
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
     private final BookSpecificationBuilder specBuilder;
     private final CategoryService categoryService;
+    private final KeysetCursorCodec cursorCodec;
+    private final BookTextIndex bookTextIndex;
+    private final BookSearchCache bookSearchCache;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final IsbnIndex isbnIndex;
+    private final CoverThumbnailPipeline thumbnailPipeline;
+    private final CategoryBitmapIndex categoryBitmapIndex;
+    private final CacheManager cacheManager;
+
+    @Value("${bookstore.search.price-buckets}")
+    private List<BigDecimal> priceBucketBounds;
+
+    @Value("${bookstore.books.max-batch-size}")
+    private int maxBatchSize;
+
+    @Value("${bookstore.search.max-category-id-ranges}")
+    private int maxCategoryIdRanges;
 
     @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.BOOKS_CACHE, key = "#result.id")
     public BookDto createBook(CreateBookRequestDto requestDto) {
+        checkIsbnAvailable(requestDto.getIsbn(), null);
         Book book = bookMapper.toModel(requestDto);
-        Set<Category> categories = getCategoriesFromIds(requestDto.getCategoryIds());
-        book.setCategories(categories);
-
-        bookRepository.save(book);
+        save(book, List.of(), requestDto.getCategoryIds());
+        AfterCommit.run(() -> {
+            categoryBitmapIndex.update(book.getId(), List.of(), requestDto.getCategoryIds());
+            isbnIndex.put(book.getIsbn(), book.getId());
+            bookTextIndex.index(book);
+            bookSuggestIndex.index(List.of(book));
+            bookSearchCache.evict(List.of(book));
+            thumbnailPipeline.enqueue(book.getCoverImage());
+        });
         return bookMapper.toDto(book);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
     public BookDto getBookById(Long id) {
-        Book book = bookRepository.findById(id)
+        return bookRepository.findDtosByIds(List.of(id)).stream()
+                .findFirst()
                 .orElseThrow(() -> new EntityNotFoundException("Book with id " + id
                         + " not found"));
-        return bookMapper.toDto(book);
+    }
+
+    @Override
+    public BookBatchDto getBooksByIds(Collection<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > maxBatchSize) {
+            throw new InvalidSearchParameterException("At most " + maxBatchSize
+                    + " book ids can be requested at once");
+        }
+        Map<Long, BookDto> found = findCached(requested);
+        List<BookDto> books = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            BookDto book = found.get(id);
+            if (book != null) {
+                books.add(book);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BookBatchDto(books, missingIds);
+    }
+
+    @Override
+    public Optional<Long> findVersion(Long id) {
+        return bookRepository.findVersionById(id);
+    }
+
+    @Override
+    public BookDto getBookByIsbn(String isbn) {
+        Long id = isbnIndex.find(isbn);
+        return bookRepository.findDtosByIds(id == null ? List.of() : List.of(id)).stream()
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Book with isbn " + isbn
+                        + " not found"));
     }
 
     @Override
     public Page<BookDto> findAll(Pageable pageable) {
-        Page<Book> books = bookRepository.findAll(pageable);
-        return books.map(bookMapper::toDto);
+        Page<Long> ids = bookRepository.findPageOfIds(pageable);
+        return new PageImpl<>(bookRepository.findDtosByIds(ids.getContent()),
+                ids.getPageable(), ids.getTotalElements());
+    }
+
+    @Override
+    public CursorPageDto<BookDto> findAll(String cursor, int size, Sort sort) {
+        Sort keysetSort = cursorCodec.toKeysetSort(sort, KEYSET_PROPERTIES);
+        KeysetScrollPosition position = cursorCodec.decode(cursor, keysetSort, KEYSET_PROPERTIES);
+        Window<Book> window = bookRepository.findAllBy(
+                position, keysetSort, Limit.of(cursorCodec.pageSize(size)));
+        return cursorCodec.toPage(window, position, books -> bookRepository.findDtosByIds(
+                books.stream()
+                        .map(Book::getId)
+                        .toList()));
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
     public void deleteBook(Long id) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Book with id " + id
                         + " not found"));
+        List<Long> categoryIds = bookRepository.findCategoryIdsById(id);
         bookRepository.delete(book);
+        adjustBookCounts(categoryIds, List.of());
+        AfterCommit.run(() -> {
+            categoryBitmapIndex.update(id, categoryIds, List.of());
+            isbnIndex.markDeleted(book.getIsbn(), id);
+            bookTextIndex.delete(id);
+            bookSuggestIndex.delete(id);
+            bookSearchCache.evict(List.of(book));
+        });
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
     public BookDto updateBook(Long id, CreateBookRequestDto dto) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Book with id " + id
                         + " not found"));
+        checkIsbnAvailable(dto.getIsbn(), id);
+        Book previous = new Book()
+                .setTitle(book.getTitle())
+                .setAuthor(book.getAuthor())
+                .setIsbn(book.getIsbn())
+                .setPrice(book.getPrice())
+                .setCoverImage(book.getCoverImage());
+        List<Long> previousCategoryIds = bookRepository.findCategoryIdsById(id);
         bookMapper.updateBookFromDto(dto, book);
-        Set<Category> categories = getCategoriesFromIds(dto.getCategoryIds());
-        book.setCategories(categories);
+        save(book, previousCategoryIds, dto.getCategoryIds());
+        AfterCommit.run(() -> {
+            categoryBitmapIndex.update(id, previousCategoryIds, dto.getCategoryIds());
+            isbnIndex.remove(previous.getIsbn(), id);
+            isbnIndex.put(book.getIsbn(), id);
+            bookTextIndex.index(book);
+            bookSuggestIndex.index(List.of(book));
+            bookSearchCache.evict(List.of(previous, book));
+            if (!Objects.equals(previous.getCoverImage(), book.getCoverImage())) {
+                thumbnailPipeline.enqueue(book.getCoverImage());
+            }
+        });
+        return bookMapper.toDto(book);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
+    public BookDto updateCoverImage(Long id, String coverImage) {
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Book with id " + id
+                        + " not found"));
+        book.setCoverImage(coverImage);
         bookRepository.save(book);
+        AfterCommit.run(() -> thumbnailPipeline.enqueue(coverImage));
         return bookMapper.toDto(book);
     }
 
     @Override
-    public List<Book> searchBooks(BookSearchParametersDto params) {
+    public Slice<BookDto> searchBooks(BookSearchParametersDto params, Pageable pageable,
+                                      boolean count) {
+        Pageable page = PageRequest.of(pageable.getPageNumber(),
+                cursorCodec.pageSize(pageable.getPageSize()),
+                cursorCodec.toKeysetSort(pageable.getSort(), KEYSET_PROPERTIES));
+        BookSearchCache.SearchIds ids = bookSearchCache.get(params, page, count,
+                () -> findSearchIds(params, page, count));
+        List<BookDto> books = bookRepository.findDtosByIds(ids.ids());
+        return count
+                ? new PageImpl<>(books, page, ids.total())
+                : new SliceImpl<>(books, page, ids.hasNext());
+    }
+
+    @Override
+    public List<BookDto> searchBooks(String query, int size) {
+        List<Long> ids = bookTextIndex.search(query, cursorCodec.pageSize(size));
+        Map<Long, BookDto> found = findCached(ids);
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public List<BookSuggestionDto> suggest(String prefix, int size) {
+        return bookSuggestIndex.suggest(prefix, size);
+    }
+
+    @Override
+    public BookFacetsDto searchFacets(BookSearchParametersDto params, Pageable pageable) {
+        Slice<BookDto> books = searchBooks(params, pageable, true);
+        Map<BookFacetRow.Type, List<FacetCountDto>> facets = bookRepository
+                .findFacets(buildSpecification(params), priceBuckets(), MAX_AUTHOR_FACETS)
+                .stream()
+                .collect(Collectors.groupingBy(BookFacetRow::type, Collectors.mapping(
+                        row -> new FacetCountDto(row.value(), row.label(), row.count()),
+                        Collectors.toList())));
+        return new BookFacetsDto(books,
+                facets.getOrDefault(BookFacetRow.Type.CATEGORY, List.of()).stream()
+                        .sorted(BY_COUNT)
+                        .toList(),
+                facets.getOrDefault(BookFacetRow.Type.PRICE, List.of()),
+                facets.getOrDefault(BookFacetRow.Type.AUTHOR, List.of()).stream()
+                        .sorted(BY_COUNT)
+                        .toList());
+    }
+
+    private BookSearchCache.SearchIds findSearchIds(BookSearchParametersDto params,
+                                                    Pageable page, boolean count) {
+        Specification<Book> bookSpecification = buildSpecification(params);
+        if (count) {
+            Page<Long> ids = bookRepository.findIds(bookSpecification, page);
+            return new BookSearchCache.SearchIds(
+                    ids.getContent(), ids.getTotalElements(), ids.hasNext());
+        }
+        Slice<Long> ids = bookRepository.findIdSlice(bookSpecification, page);
+        return new BookSearchCache.SearchIds(ids.getContent(), -1, ids.hasNext());
+    }
+
+    private Specification<Book> buildSpecification(BookSearchParametersDto params) {
+        Specification<Book> specification = specBuilder.build(toParamMap(params));
+        if (params.categories() == null || params.categories().isBlank()) {
+            return specification;
+        }
+        return specification.and(categoryBitmapIndex
+                .evaluateRanges(params.categories(), maxCategoryIdRanges)
+                .map(CategorySpecificationProvider::inIdRanges)
+                .orElseGet(() -> categoryBitmapIndex.parse(params.categories(),
+                        id -> CategorySpecificationProvider.inCategories(List.of(id)),
+                        Specification::and, Specification::or)));
+    }
+
+    private Map<String, List<String>> toParamMap(BookSearchParametersDto params) {
         Map<String, List<String>> paramMap = new HashMap<>();
         if (params.titles() != null && !params.titles().isEmpty()) {
             paramMap.put(TITLE, params.titles());
@@ -87,13 +322,67 @@ public class BookServiceImpl implements BookService {
         if (params.isbns() != null && !params.isbns().isEmpty()) {
             paramMap.put(ISBN, params.isbns());
         }
-        Specification<Book> bookSpecification = specBuilder.build(paramMap);
-        return bookRepository.findAll(bookSpecification);
+        if (params.categoryIds() != null && !params.categoryIds().isEmpty()) {
+            paramMap.put(CATEGORY, params.categoryIds().stream()
+                    .map(String::valueOf)
+                    .toList());
+        }
+        if (params.prices() != null && !params.prices().isEmpty()) {
+            paramMap.put(PRICE, params.prices());
+        }
+        return paramMap;
     }
 
-    @Override
-    public BookDto mapToDto(Book book) {
-        return bookMapper.toDto(book);
+    private List<PriceRange> priceBuckets() {
+        List<PriceRange> buckets = new ArrayList<>(priceBucketBounds.size() + 1);
+        BigDecimal lower = null;
+        for (BigDecimal upper : priceBucketBounds) {
+            buckets.add(new PriceRange(lower, upper));
+            lower = upper;
+        }
+        buckets.add(new PriceRange(lower, null));
+        return buckets;
+    }
+
+    private Map<Long, BookDto> findCached(Collection<Long> ids) {
+        Cache cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        Map<Long, BookDto> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            BookDto cached = cache == null ? null : cache.get(id, BookDto.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        for (BookDto book : bookRepository.findDtosByIds(misses)) {
+            found.put(book.getId(), book);
+            if (cache != null) {
+                cache.put(book.getId(), book);
+            }
+        }
+        return found;
+    }
+
+    private void checkIsbnAvailable(String isbn, Long id) {
+        if (isbnIndex.isTaken(isbn, id)) {
+            throw new DuplicateIsbnException("Book with isbn " + isbn + " already exists");
+        }
+    }
+
+    private void save(Book book, Collection<Long> previousCategoryIds, Set<Long> categoryIds) {
+        book.setCategories(getCategoriesFromIds(categoryIds));
+        bookRepository.save(book);
+        adjustBookCounts(previousCategoryIds, categoryIds);
+    }
+
+    private void adjustBookCounts(Collection<Long> previous, Collection<Long> current) {
+        Map<Long, Long> deltas = new HashMap<>();
+        previous.forEach(categoryId -> deltas.merge(categoryId, -1L, Long::sum));
+        current.forEach(categoryId -> deltas.merge(categoryId, 1L, Long::sum));
+        deltas.values().removeIf(delta -> delta == 0);
+        categoryService.adjustBookCounts(deltas);
     }
 
     protected Set<Category> getCategoriesFromIds(Set<Long> categoryIds) {
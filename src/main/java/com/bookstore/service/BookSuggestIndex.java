@@ -0,0 +1,364 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.book.BookSuggestionDto;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookSalesRow;
+import com.bookstore.repository.BookTextRow;
+import com.bookstore.repository.OrderItemRepository;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor
+public class BookSuggestIndex {
+    public static final int MAX_SUGGESTIONS = 20;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final String SPACE = " ";
+    private static final int MAX_SCANNED_KEYS = 10_000;
+
+    private final BookRepository bookRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final Map<Long, BookRef> books = new HashMap<>();
+    private final Map<EntryKey, Integer> entries = new HashMap<>();
+    private final Map<Long, Long> sales = new ConcurrentHashMap<>();
+    private final Map<String, RankedPrefix> rankedPrefixes = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = Snapshot.of(Map.of());
+    private int deadEntries;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Map<Long, BookRef> loaded = new HashMap<>();
+        try (Stream<BookTextRow> rows = bookRepository.streamTextRows()) {
+            rows.forEach(row -> loaded.put(row.id(), new BookRef(row.title(), row.author())));
+        }
+        Map<Long, Long> loadedSales = orderItemRepository.findBookSales().stream()
+                .collect(Collectors.toMap(BookSalesRow::bookId, BookSalesRow::quantity));
+        synchronized (this) {
+            books.clear();
+            books.putAll(loaded);
+            sales.clear();
+            sales.putAll(loadedSales);
+            replace(Snapshot.of(books));
+        }
+    }
+
+    public synchronized void index(Collection<Book> changed) {
+        Map<Long, BookRef> updates = new HashMap<>();
+        changed.forEach(book ->
+                updates.put(book.getId(), new BookRef(book.getTitle(), book.getAuthor())));
+        update(updates);
+    }
+
+    public synchronized void delete(Long id) {
+        if (books.containsKey(id)) {
+            Map<Long, BookRef> updates = new HashMap<>();
+            updates.put(id, null);
+            update(updates);
+        }
+    }
+
+    public synchronized void recordSale(Long bookId, long quantity) {
+        sales.merge(bookId, quantity, Long::sum);
+        BookRef book = books.get(bookId);
+        if (book == null || rankedPrefixes.isEmpty()) {
+            return;
+        }
+        Snapshot current = snapshot;
+        for (EntryKey key : entryKeys(book)) {
+            int entry = entries.get(key);
+            List<KeyRef> refs = new ArrayList<>();
+            addKeyRefs(key.text(), entry, refs);
+            long weight = weight(current.entryBooks[entry]);
+            rankedPrefixes.replaceAll((prefix, ranked) -> ranked.snapshot() == current
+                    && refs.stream().anyMatch(ref -> ref.key().startsWith(prefix))
+                    ? ranked.promote(new Candidate(entry, weight))
+                    : ranked);
+        }
+    }
+
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        int size = Math.min(limit, MAX_SUGGESTIONS);
+        if (key.isEmpty() || size <= 0) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        int from = current.lowerBound(key);
+        int to = current.lowerBound(key + Character.MAX_VALUE);
+        List<Candidate> ranked = to - from <= MAX_SCANNED_KEYS
+                ? rank(current, from, to, size)
+                : rankedPrefixes.compute(key, (ignored, cached) ->
+                        cached != null && cached.snapshot() == current
+                                ? cached
+                                : new RankedPrefix(current,
+                                        rank(current, from, to, MAX_SUGGESTIONS)))
+                        .candidates();
+        return ranked.stream()
+                .limit(size)
+                .map(candidate -> new BookSuggestionDto(current.texts[candidate.entry()],
+                        current.types[candidate.entry()]))
+                .toList();
+    }
+
+    private List<Candidate> rank(Snapshot current, int from, int to, int size) {
+        Comparator<Candidate> ranking = ranking(current);
+        PriorityQueue<Candidate> top = new PriorityQueue<>(ranking.reversed());
+        BitSet seen = new BitSet(current.texts.length);
+        for (int i = from; i < to; i++) {
+            int entry = current.keyEntries[i];
+            if (seen.get(entry) || current.entryBooks[entry].length == 0) {
+                continue;
+            }
+            seen.set(entry);
+            top.offer(new Candidate(entry, weight(current.entryBooks[entry])));
+            if (top.size() > size) {
+                top.poll();
+            }
+        }
+        List<Candidate> ranked = new ArrayList<>(top);
+        ranked.sort(ranking);
+        return ranked;
+    }
+
+    private static Comparator<Candidate> ranking(Snapshot current) {
+        return Comparator.comparingLong(Candidate::weight).reversed()
+                .thenComparingInt(candidate -> current.texts[candidate.entry()].length())
+                .thenComparing(candidate -> current.texts[candidate.entry()]);
+    }
+
+    private void update(Map<Long, BookRef> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        Map<EntryKey, Set<Long>> removals = new HashMap<>();
+        Map<EntryKey, Set<Long>> additions = new HashMap<>();
+        updates.forEach((id, book) -> {
+            BookRef previous = book == null ? books.remove(id) : books.put(id, book);
+            entryKeys(previous).forEach(key ->
+                    removals.computeIfAbsent(key, ignored -> new HashSet<>()).add(id));
+            entryKeys(book).forEach(key ->
+                    additions.computeIfAbsent(key, ignored -> new HashSet<>()).add(id));
+        });
+        Set<EntryKey> touched = new LinkedHashSet<>(removals.keySet());
+        touched.addAll(additions.keySet());
+        List<EntryKey> created = touched.stream()
+                .filter(key -> !entries.containsKey(key))
+                .toList();
+        Snapshot current = snapshot;
+        int size = current.texts.length;
+        String[] texts = Arrays.copyOf(current.texts, size + created.size());
+        BookSuggestionDto.Type[] types = Arrays.copyOf(current.types, size + created.size());
+        long[][] entryBooks = Arrays.copyOf(current.entryBooks, size + created.size());
+        List<KeyRef> refs = new ArrayList<>();
+        for (int i = 0; i < created.size(); i++) {
+            EntryKey key = created.get(i);
+            entries.put(key, size + i);
+            texts[size + i] = key.text();
+            types[size + i] = key.type();
+            entryBooks[size + i] = new long[0];
+            addKeyRefs(key.text(), size + i, refs);
+            deadEntries++;
+        }
+        for (EntryKey key : touched) {
+            int entry = entries.get(key);
+            Set<Long> ids = LongStream.of(entryBooks[entry]).boxed()
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            ids.removeAll(removals.getOrDefault(key, Set.of()));
+            ids.addAll(additions.getOrDefault(key, Set.of()));
+            if (entryBooks[entry].length == 0 != ids.isEmpty()) {
+                deadEntries += ids.isEmpty() ? 1 : -1;
+            }
+            entryBooks[entry] = ids.stream().mapToLong(Long::longValue).toArray();
+        }
+        if (deadEntries * 2 > texts.length) {
+            replace(Snapshot.of(books));
+            return;
+        }
+        snapshot = current.merge(refs, texts, types, entryBooks);
+        rankedPrefixes.clear();
+    }
+
+    private void replace(Snapshot rebuilt) {
+        entries.clear();
+        for (int entry = 0; entry < rebuilt.texts.length; entry++) {
+            entries.put(new EntryKey(rebuilt.texts[entry], rebuilt.types[entry]), entry);
+        }
+        deadEntries = 0;
+        snapshot = rebuilt;
+        rankedPrefixes.clear();
+    }
+
+    private static List<EntryKey> entryKeys(BookRef book) {
+        List<EntryKey> keys = new ArrayList<>(2);
+        if (book != null && book.title() != null) {
+            keys.add(new EntryKey(book.title(), BookSuggestionDto.Type.TITLE));
+        }
+        if (book != null && book.author() != null) {
+            keys.add(new EntryKey(book.author(), BookSuggestionDto.Type.AUTHOR));
+        }
+        return keys;
+    }
+
+    private static void addKeyRefs(String text, int entry, List<KeyRef> refs) {
+        String normalized = normalize(text);
+        int start = normalized.isEmpty() ? -1 : 0;
+        while (start >= 0) {
+            refs.add(new KeyRef(normalized.substring(start), entry));
+            int space = normalized.indexOf(SPACE, start);
+            start = space < 0 ? -1 : space + 1;
+        }
+    }
+
+    private long weight(long[] bookIds) {
+        long weight = 0;
+        for (long bookId : bookIds) {
+            weight += sales.getOrDefault(bookId, 0L);
+        }
+        return weight;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return SEPARATORS.splitAsStream(folded)
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.joining(SPACE));
+    }
+
+    private record BookRef(String title, String author) {
+    }
+
+    private record Candidate(int entry, long weight) {
+    }
+
+    private record EntryKey(String text, BookSuggestionDto.Type type) {
+    }
+
+    private record KeyRef(String key, int entry) {
+    }
+
+    private record RankedPrefix(Snapshot snapshot, List<Candidate> candidates) {
+        RankedPrefix promote(Candidate promoted) {
+            List<Candidate> ranked = new ArrayList<>(candidates.size() + 1);
+            for (Candidate candidate : candidates) {
+                if (candidate.entry() != promoted.entry()) {
+                    ranked.add(candidate);
+                }
+            }
+            ranked.add(promoted);
+            ranked.sort(ranking(snapshot));
+            return new RankedPrefix(snapshot,
+                    List.copyOf(ranked.subList(0, Math.min(ranked.size(), MAX_SUGGESTIONS))));
+        }
+    }
+
+    private static final class Snapshot {
+        private final String[] keys;
+        private final int[] keyEntries;
+        private final String[] texts;
+        private final BookSuggestionDto.Type[] types;
+        private final long[][] entryBooks;
+
+        private Snapshot(String[] keys, int[] keyEntries, String[] texts,
+                         BookSuggestionDto.Type[] types, long[][] entryBooks) {
+            this.keys = keys;
+            this.keyEntries = keyEntries;
+            this.texts = texts;
+            this.types = types;
+            this.entryBooks = entryBooks;
+        }
+
+        static Snapshot of(Map<Long, BookRef> books) {
+            Map<EntryKey, List<Long>> grouped = new LinkedHashMap<>();
+            books.forEach((id, book) -> entryKeys(book).forEach(key ->
+                    grouped.computeIfAbsent(key, ignored -> new ArrayList<>()).add(id)));
+            String[] texts = new String[grouped.size()];
+            BookSuggestionDto.Type[] types = new BookSuggestionDto.Type[grouped.size()];
+            long[][] entryBooks = new long[grouped.size()][];
+            List<KeyRef> refs = new ArrayList<>();
+            int entry = 0;
+            for (Map.Entry<EntryKey, List<Long>> group : grouped.entrySet()) {
+                texts[entry] = group.getKey().text();
+                types[entry] = group.getKey().type();
+                entryBooks[entry] = group.getValue().stream().mapToLong(Long::longValue).toArray();
+                addKeyRefs(texts[entry], entry, refs);
+                entry++;
+            }
+            refs.sort(Comparator.comparing(KeyRef::key));
+            String[] keys = new String[refs.size()];
+            int[] keyEntries = new int[refs.size()];
+            for (int i = 0; i < refs.size(); i++) {
+                keys[i] = refs.get(i).key();
+                keyEntries[i] = refs.get(i).entry();
+            }
+            return new Snapshot(keys, keyEntries, texts, types, entryBooks);
+        }
+
+        Snapshot merge(List<KeyRef> refs, String[] texts, BookSuggestionDto.Type[] types,
+                       long[][] entryBooks) {
+            if (refs.isEmpty()) {
+                return new Snapshot(keys, keyEntries, texts, types, entryBooks);
+            }
+            refs.sort(Comparator.comparing(KeyRef::key));
+            String[] mergedKeys = new String[keys.length + refs.size()];
+            int[] mergedEntries = new int[mergedKeys.length];
+            int existing = 0;
+            int added = 0;
+            for (int i = 0; i < mergedKeys.length; i++) {
+                if (added == refs.size() || existing < keys.length
+                        && keys[existing].compareTo(refs.get(added).key()) <= 0) {
+                    mergedKeys[i] = keys[existing];
+                    mergedEntries[i] = keyEntries[existing++];
+                } else {
+                    mergedKeys[i] = refs.get(added).key();
+                    mergedEntries[i] = refs.get(added++).entry();
+                }
+            }
+            return new Snapshot(mergedKeys, mergedEntries, texts, types, entryBooks);
+        }
+
+        int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.bookstore.service;
+
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookTextRow;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor
+public class BookTextIndex {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Map.Entry<Long, Double>> RANKING =
+            Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey());
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_BOOST = 0.8;
+    private static final double FUZZY_BOOST = 0.5;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int LONG_TOKEN_LENGTH = 8;
+    private static final int MAX_EXPANSIONS = 50;
+    private static final int GRAM_LENGTH = 3;
+
+    private final BookRepository bookRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> grams = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> lengths = new HashMap<>();
+    private long totalLength;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Map<Long, Map<String, Integer>> loaded = new HashMap<>();
+        try (Stream<BookTextRow> rows = bookRepository.streamTextRows()) {
+            rows.forEach(row -> loaded.put(row.id(),
+                    terms(row.title(), row.author(), row.description())));
+        }
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            grams.clear();
+            documents.clear();
+            lengths.clear();
+            totalLength = 0;
+            loaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Book book) {
+        index(book.getId(), book.getTitle(), book.getAuthor(), book.getDescription());
+    }
+
+    public void index(Long id, String title, String author, String description) {
+        Map<String, Integer> terms = terms(title, author, description);
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            add(id, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = tokenize(query).distinct().toList();
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+            return top(score(tokens), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> score(List<String> tokens) {
+        double averageLength = (double) totalLength / documents.size();
+        Map<Long, Double> scores = new HashMap<>();
+        for (String token : tokens) {
+            Map<Long, Double> best = new HashMap<>();
+            expand(token).forEach((term, boost) -> {
+                Map<Long, Integer> docs = postings.get(term);
+                double idf = Math.log(1 + (documents.size() - docs.size() + 0.5)
+                        / (docs.size() + 0.5));
+                docs.forEach((id, frequency) -> {
+                    double norm = K1 * (1 - B + B * lengths.get(id) / averageLength);
+                    double score = boost * idf * frequency * (K1 + 1) / (frequency + norm);
+                    best.merge(id, score, Math::max);
+                });
+            });
+            best.forEach((id, score) -> scores.merge(id, score, Double::sum));
+        }
+        return scores;
+    }
+
+    private Map<String, Double> expand(String token) {
+        Map<String, Double> terms = new HashMap<>();
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet().stream()
+                    .limit(MAX_EXPANSIONS)
+                    .forEach(term -> terms.put(term, PREFIX_BOOST));
+        }
+        if (postings.containsKey(token)) {
+            terms.put(token, 1.0);
+        }
+        if (terms.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = token.length() < LONG_TOKEN_LENGTH ? 1 : 2;
+            fuzzyCandidates(token, maxEdits).stream()
+                    .filter(term -> withinEditDistance(token, term, maxEdits))
+                    .limit(MAX_EXPANSIONS)
+                    .forEach(term -> terms.put(term, FUZZY_BOOST));
+        }
+        return terms;
+    }
+
+    private Set<String> fuzzyCandidates(String token, int maxEdits) {
+        Set<String> tokenGrams = grams(token);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : tokenGrams) {
+            grams.getOrDefault(gram, Set.of()).forEach(term ->
+                    shared.merge(term, 1, Integer::sum));
+        }
+        int minShared = tokenGrams.size() - GRAM_LENGTH * maxEdits;
+        Set<String> candidates = new TreeSet<>();
+        shared.forEach((term, count) -> {
+            if (count >= minShared && Math.abs(term.length() - token.length()) <= maxEdits) {
+                candidates.add(term);
+            }
+        });
+        return candidates;
+    }
+
+    private List<Long> top(Map<Long, Double> scores, int limit) {
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(RANKING.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(top.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private void add(Long id, Map<String, Integer> terms) {
+        int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        documents.put(id, terms);
+        lengths.put(id, length);
+        totalLength += length;
+        terms.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> {
+            grams(key).forEach(gram -> grams.computeIfAbsent(gram, g -> new HashSet<>()).add(key));
+            return new HashMap<>();
+        }).put(id, frequency));
+    }
+
+    private void remove(Long id) {
+        Map<String, Integer> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        totalLength -= lengths.remove(id);
+        terms.keySet().forEach(term -> {
+            Map<Long, Integer> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+                grams(term).forEach(gram -> {
+                    Set<String> gramTerms = grams.get(gram);
+                    gramTerms.remove(term);
+                    if (gramTerms.isEmpty()) {
+                        grams.remove(gram);
+                    }
+                });
+            }
+        });
+    }
+
+    private Map<String, Integer> terms(String title, String author, String description) {
+        Map<String, Integer> terms = new HashMap<>();
+        tokenize(title).forEach(term -> terms.merge(term, TITLE_WEIGHT, Integer::sum));
+        tokenize(author).forEach(term -> terms.merge(term, AUTHOR_WEIGHT, Integer::sum));
+        tokenize(description).forEach(term ->
+                terms.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        return terms;
+    }
+
+    private static Stream<String> tokenize(String text) {
+        if (text == null) {
+            return Stream.empty();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return SEPARATORS.splitAsStream(folded)
+                .filter(token -> !token.isEmpty());
+    }
+
+    private static Set<String> grams(String term) {
+        String padded = "##" + term + "$$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static boolean withinEditDistance(String source, String target, int maxEdits) {
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= target.length(); j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[target.length()] <= maxEdits;
+    }
+}
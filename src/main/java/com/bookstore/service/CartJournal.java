@@ -0,0 +1,145 @@
+package com.bookstore.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class CartJournal {
+    private static final String SEPARATOR = " ";
+    private static final String QUANTITY_SEPARATOR = ":";
+    private static final String END = ";";
+
+    private final Path path;
+    private final boolean fsync;
+    private FileChannel channel;
+    private long appended;
+
+    CartJournal(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String line(Long cartId, List<LiveCart.Item> items) {
+        StringBuilder line = new StringBuilder().append(cartId);
+        for (LiveCart.Item item : items) {
+            line.append(SEPARATOR).append(item.bookId())
+                    .append(QUANTITY_SEPARATOR).append(item.quantity());
+        }
+        return line.append(SEPARATOR).append(END).append('\n').toString();
+    }
+
+    synchronized void append(String line) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            appended++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized Map<Long, Map<Long, Integer>> read() {
+        Map<Long, Map<Long, Integer>> carts = new HashMap<>();
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] parts = line.trim().split(SEPARATOR);
+                Map<Long, Integer> items = parseItems(parts);
+                if (items != null) {
+                    carts.put(Long.parseLong(parts[0]), items);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return carts;
+    }
+
+    synchronized boolean hasAppends() {
+        return appended > 0;
+    }
+
+    synchronized void rewrite(Collection<String> lines) {
+        try {
+            Path temp = Files.createTempFile(path.toAbsolutePath().getParent(),
+                    "cart-journal-", ".tmp");
+            try {
+                try (BufferedWriter writer = Files.newBufferedWriter(temp,
+                        StandardCharsets.UTF_8)) {
+                    for (String line : lines) {
+                        writer.write(line);
+                    }
+                }
+                try (FileChannel written = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    written.force(true);
+                }
+                channel.close();
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+                if (!channel.isOpen()) {
+                    channel = open(path);
+                }
+            }
+            appended = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<Long, Integer> parseItems(String[] parts) {
+        try {
+            Long.parseLong(parts[0]);
+            if (!END.equals(parts[parts.length - 1])) {
+                return null;
+            }
+            Map<Long, Integer> items = new LinkedHashMap<>();
+            for (int i = 1; i < parts.length - 1; i++) {
+                String[] item = parts[i].split(QUANTITY_SEPARATOR);
+                items.put(Long.parseLong(item[0]), Integer.parseInt(item[1]));
+            }
+            return items;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,50 @@
+package com.bookstore.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class CartMutationExecutor {
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Counter retries;
+    private final Counter conflicts;
+
+    public CartMutationExecutor(TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${bookstore.cart.max-attempts}") int maxAttempts) {
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        this.retries = Counter.builder("bookstore.cart.mutation.retries")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("bookstore.cart.mutation.conflicts")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> mutation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> mutation.get());
+            } catch (ConcurrencyFailureException | DuplicateKeyException e) {
+                if (attempt >= maxAttempts) {
+                    conflicts.increment();
+                    throw e;
+                }
+                retries.increment();
+            }
+        }
+    }
+
+    public void run(Runnable mutation) {
+        execute(() -> {
+            mutation.run();
+            return null;
+        });
+    }
+}
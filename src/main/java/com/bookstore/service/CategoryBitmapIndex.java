@@ -0,0 +1,197 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.InvalidSearchParameterException;
+import com.bookstore.repository.BookJdbcRepository;
+import com.bookstore.repository.book.BookIdRange;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CategoryBitmapIndex {
+    private static final Pattern TOKEN =
+            Pattern.compile("\\(|\\)|\\d+|AND|OR", Pattern.CASE_INSENSITIVE);
+    private static final int MAX_TOKENS = 256;
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+    private static final String OPEN = "(";
+    private static final String CLOSE = ")";
+
+    private final BookJdbcRepository bookJdbcRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, BookIdBitmap> bitmaps = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            bitmaps.clear();
+            bookJdbcRepository.forEachCategoryLink(row -> bitmaps
+                    .computeIfAbsent(row.categoryId(), id -> new BookIdBitmap())
+                    .add(row.bookId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void update(Long bookId, Collection<Long> previous, Collection<Long> current) {
+        lock.writeLock().lock();
+        try {
+            for (Long categoryId : previous) {
+                if (!current.contains(categoryId)) {
+                    BookIdBitmap bitmap = bitmaps.get(categoryId);
+                    if (bitmap != null) {
+                        bitmap.remove(bookId);
+                    }
+                }
+            }
+            for (Long categoryId : current) {
+                bitmaps.computeIfAbsent(categoryId, id -> new BookIdBitmap()).add(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            bitmaps.remove(categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> evaluate(String expression) {
+        lock.readLock().lock();
+        try {
+            return parse(expression, this::bitmap, BookIdBitmap::and, BookIdBitmap::or).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<List<BookIdRange>> evaluateRanges(String expression, int maxRanges) {
+        lock.readLock().lock();
+        try {
+            return parse(expression, this::bitmap, BookIdBitmap::and, BookIdBitmap::or)
+                    .toRanges(maxRanges);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public <T> T parse(String expression, Function<Long, T> category,
+                       BinaryOperator<T> and, BinaryOperator<T> or) {
+        List<String> tokens = tokenize(expression);
+        Parser<T> parser = new Parser<>(expression, tokens, category, and, or);
+        T result = parser.expression();
+        if (parser.position != tokens.size()) {
+            throw invalid(expression);
+        }
+        return result;
+    }
+
+    private BookIdBitmap bitmap(Long categoryId) {
+        BookIdBitmap bitmap = bitmaps.get(categoryId);
+        return bitmap != null ? bitmap : new BookIdBitmap();
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(expression);
+        int position = 0;
+        while (matcher.find()) {
+            if (!expression.substring(position, matcher.start()).isBlank()
+                    || tokens.size() == MAX_TOKENS) {
+                throw invalid(expression);
+            }
+            tokens.add(matcher.group().toUpperCase(Locale.ROOT));
+            position = matcher.end();
+        }
+        if (tokens.isEmpty() || !expression.substring(position).isBlank()) {
+            throw invalid(expression);
+        }
+        return tokens;
+    }
+
+    private static InvalidSearchParameterException invalid(String expression) {
+        return new InvalidSearchParameterException("Invalid category expression '" + expression
+                + "', expected category ids combined with AND, OR and parentheses");
+    }
+
+    private static final class Parser<T> {
+        private final String expression;
+        private final List<String> tokens;
+        private final Function<Long, T> category;
+        private final BinaryOperator<T> and;
+        private final BinaryOperator<T> or;
+        private int position;
+
+        private Parser(String expression, List<String> tokens, Function<Long, T> category,
+                       BinaryOperator<T> and, BinaryOperator<T> or) {
+            this.expression = expression;
+            this.tokens = tokens;
+            this.category = category;
+            this.and = and;
+            this.or = or;
+        }
+
+        private T expression() {
+            T result = term();
+            while (accept(OR)) {
+                result = or.apply(result, term());
+            }
+            return result;
+        }
+
+        private T term() {
+            T result = factor();
+            while (accept(AND)) {
+                result = and.apply(result, factor());
+            }
+            return result;
+        }
+
+        private T factor() {
+            if (accept(OPEN)) {
+                T result = expression();
+                if (!accept(CLOSE)) {
+                    throw invalid(expression);
+                }
+                return result;
+            }
+            if (position == tokens.size() || !Character.isDigit(tokens.get(position).charAt(0))) {
+                throw invalid(expression);
+            }
+            try {
+                return category.apply(Long.parseLong(tokens.get(position++)));
+            } catch (NumberFormatException e) {
+                throw invalid(expression);
+            }
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equals(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.bookstore.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CategoryBookCountRepairJob {
+    private final CategoryService categoryService;
+    private final Counter repairs;
+
+    public CategoryBookCountRepairJob(CategoryService categoryService,
+                                      MeterRegistry meterRegistry) {
+        this.categoryService = categoryService;
+        this.repairs = Counter.builder("bookstore.categories.book-count.repairs")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${bookstore.categories.book-count-repair-cron}")
+    public void repair() {
+        repairs.increment(categoryService.repairBookCounts());
+    }
+}
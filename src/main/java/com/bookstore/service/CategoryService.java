@@ -2,23 +2,44 @@ package com.bookstore.service;
 
 import com.bookstore.dto.CategoryDto;
 import com.bookstore.dto.CreateCategoryDto;
+import com.bookstore.dto.CursorPageDto;
 import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.bookstore.model.Category;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.data.domain.Sort;
 
 public interface CategoryService {
 
     List<CategoryDto> findAll();
 
+    byte[] findAllJson();
+
     CategoryDto getById(Long id);
 
+    Optional<Long> findVersion(Long id);
+
+    long getListVersion();
+
     Category getEntityById(Long id);
 
+    List<CategoryDto> getChildren(Long id);
+
+    List<CategoryDto> getPath(Long id);
+
     CategoryDto save(CreateCategoryDto dto);
 
     CategoryDto update(Long id, CreateCategoryDto dto);
 
+    CategoryDto moveToRoot(Long id);
+
     void deleteById(Long id);
 
-    List<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long id);
+    void adjustBookCounts(Map<Long, Long> deltas);
+
+    int repairBookCounts();
+
+    CursorPageDto<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long id, String cursor,
+                                                                  int size, Sort sort);
 }
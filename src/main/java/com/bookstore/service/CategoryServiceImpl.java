@@ -1,78 +1,220 @@
 package com.bookstore.service;
 
+import com.bookstore.config.CacheConfig;
 import com.bookstore.dto.CategoryDto;
 import com.bookstore.dto.CreateCategoryDto;
+import com.bookstore.dto.CursorPageDto;
 import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.exception.CategoryHierarchyException;
 import com.bookstore.exception.EntityNotFoundException;
-import com.bookstore.mapper.BookMapper;
 import com.bookstore.mapper.CategoryMapper;
 import com.bookstore.model.Category;
+import com.bookstore.repository.BookKeysetRow;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CategoryClosureRepository;
 import com.bookstore.repository.CategoryRepository;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @AllArgsConstructor
 @Service
 public class CategoryServiceImpl implements CategoryService {
+    private static final Map<String, Class<?>> KEYSET_PROPERTIES = Map.of(
+            "id", Long.class,
+            BookServiceImpl.TITLE, String.class,
+            BookServiceImpl.PRICE, BigDecimal.class);
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
     private final BookRepository bookRepository;
-    private final BookMapper bookMapper;
+    private final CacheManager cacheManager;
+    private final KeysetCursorCodec cursorCodec;
+    private final CategorySnapshot categorySnapshot;
+    private final CategoryBitmapIndex categoryBitmapIndex;
+    private final CategoryClosureRepository categoryClosureRepository;
 
     @Override
     public List<CategoryDto> findAll() {
-        List<Category> allCategory = categoryRepository.findAll();
-        return allCategory.stream()
-                .map(categoryMapper::toDto)
-                .toList();
+        return categorySnapshot.findAll();
+    }
+
+    @Override
+    public byte[] findAllJson() {
+        return categorySnapshot.findAllJson();
     }
 
     @Override
     public CategoryDto getById(Long id) {
-        Category category = categoryRepository.findById(id)
+        return categorySnapshot.find(id)
                 .orElseThrow(() -> new EntityNotFoundException("Category with id " + id
                 + " not found"));
-        return categoryMapper.toDto(category);
+    }
+
+    @Override
+    public Optional<Long> findVersion(Long id) {
+        return categorySnapshot.findVersion(id);
+    }
+
+    @Override
+    public long getListVersion() {
+        return categorySnapshot.getVersion();
     }
 
     @Override
     public Category getEntityById(Long id) {
-        return categoryRepository.findById(id)
+        return categorySnapshot.findEntity(id)
                 .orElseThrow(() -> new EntityNotFoundException("Category with id " + id
                         + " not found"));
     }
 
     @Override
+    public List<CategoryDto> getChildren(Long id) {
+        getById(id);
+        return categorySnapshot.findChildren(id);
+    }
+
+    @Override
+    public List<CategoryDto> getPath(Long id) {
+        getById(id);
+        return categorySnapshot.findPath(id);
+    }
+
+    @Override
+    @Transactional
     public CategoryDto save(CreateCategoryDto dto) {
-        Category category = categoryMapper.toCategory(dto);
-        return categoryMapper.toDto(categoryRepository.save(category));
+        if (dto.getParentId() != null) {
+            getById(dto.getParentId());
+        }
+        Category category = categoryRepository.save(categoryMapper.toCategory(dto));
+        categoryClosureRepository.insertSelf(category.getId());
+        if (category.getParentId() != null) {
+            categoryClosureRepository.attachSubtree(category.getId(), category.getParentId());
+        }
+        AfterCommit.run(categorySnapshot::rebuild);
+        return categoryMapper.toDto(category);
     }
 
     @Override
+    @Transactional
     public CategoryDto update(Long id, CreateCategoryDto dto) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Category with id " + id
                 + " not found"));
+        Long parentId = dto.getParentId();
+        boolean moved = parentId != null && !parentId.equals(category.getParentId());
+        List<Long> subtreeIds = categorySnapshot.findSubtreeIds(id);
+        if (moved) {
+            getById(parentId);
+            if (subtreeIds.contains(parentId)) {
+                throw new CategoryHierarchyException("Category with id " + id
+                        + " can't be moved under its own subcategory " + parentId);
+            }
+        }
         categoryMapper.updateCategoryFromDto(dto, category);
         categoryRepository.save(category);
+        if (moved) {
+            categoryClosureRepository.detachSubtree(subtreeIds);
+            categoryClosureRepository.attachSubtree(id, parentId);
+        }
+        AfterCommit.run(categorySnapshot::rebuild);
+        touchBooks(bookRepository.findIdsByCategoryId(id));
+        return categoryMapper.toDto(category);
+    }
+
+    @Override
+    @Transactional
+    public CategoryDto moveToRoot(Long id) {
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Category with id " + id
+                + " not found"));
+        if (category.getParentId() != null) {
+            categoryClosureRepository.detachSubtree(categorySnapshot.findSubtreeIds(id));
+            category.setParentId(null);
+            categoryRepository.save(category);
+            AfterCommit.run(categorySnapshot::rebuild);
+        }
         return categoryMapper.toDto(category);
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Category with id " + id
                 + " not found"));
+        if (!categorySnapshot.findChildren(id).isEmpty()) {
+            throw new CategoryHierarchyException("Category with id " + id
+                    + " has subcategories and can't be deleted");
+        }
+        List<Long> bookIds = bookRepository.findIdsByCategoryId(id);
         categoryRepository.delete(category);
+        categoryClosureRepository.deleteLeaf(id);
+        touchBooks(bookIds);
+        AfterCommit.run(() -> {
+            categorySnapshot.rebuild();
+            categoryBitmapIndex.removeCategory(id);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void adjustBookCounts(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        deltas.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
+                .forEach((delta, ids) -> categoryRepository.adjustBookCounts(ids, delta));
+        AfterCommit.run(() -> categorySnapshot.refreshBookCounts(deltas.keySet()));
     }
 
     @Override
-    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long id) {
-        return bookRepository.findAllByCategories_Id(id).stream()
-                .map(bookMapper::toDtoWithoutCategories)
-                .toList();
+    public int repairBookCounts() {
+        if (categoryRepository.countDriftedBookCounts() == 0) {
+            return 0;
+        }
+        int repaired = categoryRepository.recountBooks();
+        categorySnapshot.rebuild();
+        return repaired;
     }
 
+    @Override
+    public CursorPageDto<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long id, String cursor,
+                                                                         int size, Sort sort) {
+        Sort keysetSort = cursorCodec.toKeysetSort(sort, KEYSET_PROPERTIES);
+        KeysetScrollPosition position =
+                cursorCodec.decode(cursor, keysetSort, KEYSET_PROPERTIES);
+        List<Long> subtreeIds = categorySnapshot.findSubtreeIds(id);
+        if (subtreeIds.isEmpty()) {
+            return new CursorPageDto<>(List.of(), null, null, 0);
+        }
+        Window<BookKeysetRow> window = bookRepository.findDistinctByCategoriesIdIn(
+                subtreeIds, position, keysetSort, Limit.of(cursorCodec.pageSize(size)));
+        return cursorCodec.toPage(window, position, books -> bookRepository.findSummariesByIds(
+                books.stream()
+                        .map(BookKeysetRow::getId)
+                        .toList()));
+    }
+
+    private void touchBooks(List<Long> bookIds) {
+        if (!bookIds.isEmpty()) {
+            bookRepository.incrementVersions(bookIds);
+        }
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        if (books != null) {
+            bookIds.forEach(books::evict);
+        }
+    }
 }
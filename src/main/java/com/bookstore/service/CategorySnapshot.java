@@ -0,0 +1,175 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.CategoryDto;
+import com.bookstore.mapper.CategoryMapper;
+import com.bookstore.model.Category;
+import com.bookstore.model.CategoryClosure;
+import com.bookstore.repository.CategoryBookCountRow;
+import com.bookstore.repository.CategoryClosureRepository;
+import com.bookstore.repository.CategoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CategorySnapshot {
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final CategoryMapper categoryMapper;
+    private final ObjectMapper objectMapper;
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        snapshot = build(categoryRepository.findAll(Sort.by("id")),
+                categoryClosureRepository.findAll());
+    }
+
+    public synchronized void refreshBookCounts(Collection<Long> ids) {
+        Snapshot current = snapshot;
+        if (current == null || ids.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> bookCounts = categoryRepository.findBookCounts(ids).stream()
+                .collect(Collectors.toMap(CategoryBookCountRow::id,
+                        CategoryBookCountRow::bookCount));
+        snapshot = build(current.categories().values().stream()
+                .sorted(Comparator.comparing(Category::getId))
+                .map(category -> copy(category).setBookCount(bookCounts.getOrDefault(
+                        category.getId(), category.getBookCount())))
+                .toList(), current.links());
+    }
+
+    public List<CategoryDto> findAll() {
+        return current().all();
+    }
+
+    public byte[] findAllJson() {
+        return current().json();
+    }
+
+    public long getVersion() {
+        return current().version();
+    }
+
+    public Optional<CategoryDto> find(Long id) {
+        return Optional.ofNullable(current().dtos().get(id));
+    }
+
+    public Optional<Long> findVersion(Long id) {
+        return Optional.ofNullable(current().categories().get(id))
+                .map(Category::getVersion);
+    }
+
+    public Optional<Category> findEntity(Long id) {
+        return Optional.ofNullable(current().categories().get(id))
+                .map(CategorySnapshot::copy);
+    }
+
+    public List<Long> findSubtreeIds(Long id) {
+        return current().subtrees().getOrDefault(id, List.of());
+    }
+
+    public List<CategoryDto> findChildren(Long id) {
+        return current().children().getOrDefault(id, List.of());
+    }
+
+    public List<CategoryDto> findPath(Long id) {
+        return current().paths().getOrDefault(id, List.of());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private Snapshot build(List<Category> loaded, List<CategoryClosure> links) {
+        Map<Long, Category> categories = new LinkedHashMap<>();
+        Map<Long, CategoryDto> dtos = new LinkedHashMap<>();
+        long version = 0;
+        for (Category category : loaded) {
+            categories.put(category.getId(), copy(category));
+            dtos.put(category.getId(), categoryMapper.toDto(category));
+            version = (version + category.getId()) * HASH_MULTIPLIER;
+            version = (version + category.getVersion()) * HASH_MULTIPLIER;
+            version = (version + category.getBookCount()) * HASH_MULTIPLIER;
+        }
+        Map<Long, List<CategoryDto>> children = new HashMap<>();
+        for (Category category : categories.values()) {
+            if (category.getParentId() != null) {
+                children.computeIfAbsent(category.getParentId(), id -> new ArrayList<>())
+                        .add(dtos.get(category.getId()));
+            }
+        }
+        Map<Long, List<Long>> subtrees = new HashMap<>();
+        Map<Long, List<CategoryClosure>> ancestors = new HashMap<>();
+        for (CategoryClosure link : links) {
+            if (categories.containsKey(link.getAncestorId())
+                    && categories.containsKey(link.getDescendantId())) {
+                subtrees.computeIfAbsent(link.getAncestorId(), id -> new ArrayList<>())
+                        .add(link.getDescendantId());
+                ancestors.computeIfAbsent(link.getDescendantId(), id -> new ArrayList<>())
+                        .add(link);
+            }
+        }
+        Map<Long, List<CategoryDto>> paths = new HashMap<>();
+        ancestors.forEach((id, ancestorLinks) -> paths.put(id, ancestorLinks.stream()
+                .sorted(Comparator.comparingInt(CategoryClosure::getDepth).reversed())
+                .map(link -> dtos.get(link.getAncestorId()))
+                .toList()));
+        List<CategoryDto> all = List.copyOf(dtos.values());
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(all);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Can't serialize categories", e);
+        }
+        return new Snapshot(Map.copyOf(categories), Map.copyOf(dtos), all, json, version,
+                copyLists(children), copyLists(subtrees), Map.copyOf(paths),
+                List.copyOf(links));
+    }
+
+    private static Category copy(Category category) {
+        return new Category()
+                .setId(category.getId())
+                .setName(category.getName())
+                .setDescription(category.getDescription())
+                .setParentId(category.getParentId())
+                .setBookCount(category.getBookCount())
+                .setVersion(category.getVersion());
+    }
+
+    private static <T> Map<Long, List<T>> copyLists(Map<Long, List<T>> lists) {
+        Map<Long, List<T>> copy = new HashMap<>();
+        lists.forEach((id, values) -> copy.put(id, List.copyOf(values)));
+        return Map.copyOf(copy);
+    }
+
+    private record Snapshot(Map<Long, Category> categories, Map<Long, CategoryDto> dtos,
+                            List<CategoryDto> all, byte[] json, long version,
+                            Map<Long, List<CategoryDto>> children,
+                            Map<Long, List<Long>> subtrees,
+                            Map<Long, List<CategoryDto>> paths,
+                            List<CategoryClosure> links) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.book.BookDto;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.springframework.http.MediaType;
+
+public interface CoverImageService {
+    String COVERS_PATH = "/covers/";
+
+    BookDto storeCover(Long bookId, MediaType contentType, InputStream body) throws IOException;
+
+    CoverFile findCover(String name) throws IOException;
+
+    Optional<CoverFile> findThumbnail(String name, ThumbnailSize size) throws IOException;
+
+    void transfer(CoverFile cover, long position, long count, OutputStream out)
+            throws IOException;
+
+    record CoverFile(Path path, String hash, MediaType contentType, long length,
+                     long lastModified) {
+        public String etag() {
+            return "\"" + hash + "\"";
+        }
+    }
+}
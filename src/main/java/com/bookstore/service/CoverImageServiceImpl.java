@@ -0,0 +1,60 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.exception.EntityNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class CoverImageServiceImpl implements CoverImageService {
+    private final BookService bookService;
+    private final CoverStorage coverStorage;
+    private final CoverThumbnailCache thumbnailCache;
+    private final CoverThumbnailPipeline thumbnailPipeline;
+
+    @Override
+    public BookDto storeCover(Long bookId, MediaType contentType, InputStream body)
+            throws IOException {
+        if (bookService.findVersion(bookId).isEmpty()) {
+            throw new EntityNotFoundException("Book with id " + bookId + " not found");
+        }
+        return bookService.updateCoverImage(bookId,
+                COVERS_PATH + coverStorage.store(contentType, body));
+    }
+
+    @Override
+    public CoverFile findCover(String name) throws IOException {
+        return coverStorage.find(name);
+    }
+
+    @Override
+    public Optional<CoverFile> findThumbnail(String name, ThumbnailSize size) throws IOException {
+        CoverFile cover = coverStorage.find(name);
+        Path path = thumbnailCache.get(name, size);
+        if (path != null) {
+            try {
+                return Optional.of(coverStorage.file(path,
+                        cover.hash() + "-" + size.name().toLowerCase(Locale.ROOT), name));
+            } catch (NoSuchFileException e) {
+                thumbnailCache.remove(path);
+            }
+        }
+        thumbnailPipeline.enqueue(COVERS_PATH + name);
+        return Optional.empty();
+    }
+
+    @Override
+    public void transfer(CoverFile cover, long position, long count, OutputStream out)
+            throws IOException {
+        coverStorage.transfer(cover, position, count, out);
+    }
+}
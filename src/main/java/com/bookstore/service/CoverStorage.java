@@ -0,0 +1,152 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.exception.InvalidCoverImageException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+public class CoverStorage {
+    private static final Map<String, MediaType> CONTENT_TYPES = Map.of(
+            "jpg", MediaType.IMAGE_JPEG,
+            "png", MediaType.IMAGE_PNG,
+            "gif", MediaType.IMAGE_GIF,
+            "webp", MediaType.parseMediaType("image/webp"));
+    private static final Pattern COVER_NAME = Pattern.compile("([0-9a-f]{64})\\.([a-z]+)");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final long maxSize;
+
+    public CoverStorage(@Value("${bookstore.covers.dir}") Path directory,
+                        @Value("${bookstore.covers.max-size}") DataSize maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize.toBytes();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public String store(MediaType contentType, InputStream body) throws IOException {
+        String extension = CONTENT_TYPES.entrySet().stream()
+                .filter(entry -> entry.getValue().equalsTypeAndSubtype(contentType))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow(() -> new InvalidCoverImageException(
+                        "Unsupported cover type " + contentType));
+        Files.createDirectories(directory);
+        Path upload = Files.createTempFile(directory, "upload-", ".tmp");
+        try {
+            String hash = write(body, upload);
+            String name = hash + "." + extension;
+            Path target = resolve(hash, name);
+            Files.createDirectories(target.getParent());
+            if (Files.notExists(target)) {
+                Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return name;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    public boolean isCoverName(String name) {
+        Matcher matcher = COVER_NAME.matcher(name);
+        return matcher.matches() && CONTENT_TYPES.containsKey(matcher.group(2));
+    }
+
+    public CoverImageService.CoverFile find(String name) throws IOException {
+        if (!isCoverName(name)) {
+            throw new EntityNotFoundException("Cover " + name + " not found");
+        }
+        String hash = name.substring(0, name.indexOf('.'));
+        Path path = resolve(hash, name);
+        if (!Files.isRegularFile(path)) {
+            throw new EntityNotFoundException("Cover " + name + " not found");
+        }
+        return file(path, hash, name);
+    }
+
+    public CoverImageService.CoverFile file(Path path, String hash, String name)
+            throws IOException {
+        return new CoverImageService.CoverFile(path, hash,
+                CONTENT_TYPES.get(extension(name)), Files.size(path),
+                Files.getLastModifiedTime(path).toMillis());
+    }
+
+    public void transfer(CoverImageService.CoverFile cover, long position, long count,
+                         OutputStream out) throws IOException {
+        try (FileChannel file = FileChannel.open(cover.path(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long sent = 0;
+            while (sent < count) {
+                long transferred = file.transferTo(position + sent, count - sent, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                sent += transferred;
+            }
+        }
+    }
+
+    static String extension(String name) {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    private String write(InputStream body, Path upload) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        try (FileChannel file = FileChannel.open(upload, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new InvalidCoverImageException(
+                            "Cover image is larger than " + maxSize + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    file.write(chunk);
+                }
+            }
+        }
+        if (size == 0) {
+            throw new InvalidCoverImageException("Cover image is empty");
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Path resolve(String hash, String name) {
+        return directory.resolve(hash.substring(0, 2)).resolve(name);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.bookstore.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Slf4j
+@Component
+public class CoverThumbnailCache {
+    private static final String THUMBNAILS = "thumbnails";
+
+    private final Path directory;
+    private final long maxSize;
+    private final Map<Path, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    public CoverThumbnailCache(CoverStorage coverStorage,
+                               @Value("${bookstore.covers.thumbnails.cache-size}")
+                               DataSize maxSize,
+                               MeterRegistry meterRegistry) {
+        this.directory = coverStorage.getDirectory().resolve(THUMBNAILS);
+        this.maxSize = maxSize.toBytes();
+        Gauge.builder("bookstore.thumbnails.cache.size", this, CoverThumbnailCache::size)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("bookstore.thumbnails.cache.entries", this, CoverThumbnailCache::entries)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() throws IOException {
+        List<Path> files = List.of();
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> walk = Files.walk(directory)) {
+                files = walk.filter(Files::isRegularFile)
+                        .sorted(Comparator.comparingLong(path -> path.toFile().lastModified()))
+                        .toList();
+            }
+        }
+        synchronized (this) {
+            entries.clear();
+            size = 0;
+            for (Path file : files) {
+                put(file, file.toFile().length());
+            }
+        }
+    }
+
+    public Path path(String name, ThumbnailSize thumbnailSize) {
+        return directory.resolve(thumbnailSize.name().toLowerCase(Locale.ROOT)).resolve(name);
+    }
+
+    public synchronized Path get(String name, ThumbnailSize thumbnailSize) {
+        Path path = path(name, thumbnailSize);
+        return entries.get(path) != null ? path : null;
+    }
+
+    public void put(Path path, long bytes) {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = entries.put(path, bytes);
+            size += bytes - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<Path, Long>> eldest = entries.entrySet().iterator();
+            while (size > maxSize && eldest.hasNext()) {
+                Map.Entry<Path, Long> entry = eldest.next();
+                if (entry.getKey().equals(path)) {
+                    continue;
+                }
+                eldest.remove();
+                size -= entry.getValue();
+                evicted.add(entry.getKey());
+            }
+        }
+        evicted.forEach(CoverThumbnailCache::delete);
+    }
+
+    public synchronized void remove(Path path) {
+        Long bytes = entries.remove(path);
+        if (bytes != null) {
+            size -= bytes;
+        }
+    }
+
+    private synchronized long size() {
+        return size;
+    }
+
+    private synchronized int entries() {
+        return entries.size();
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Deleting evicted thumbnail {} failed", path, e);
+        }
+    }
+}
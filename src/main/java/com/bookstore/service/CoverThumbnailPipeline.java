@@ -0,0 +1,205 @@
+package com.bookstore.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CoverThumbnailPipeline {
+    private static final String QUEUE = "thumbnail-queue";
+    private static final String FAILED = "thumbnail-failed";
+    private static final String JPEG = "jpg";
+
+    private final CoverStorage coverStorage;
+    private final CoverThumbnailCache thumbnailCache;
+    private final Path queueDirectory;
+    private final Path failedDirectory;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final Timer processingTimer;
+    private final Counter failures;
+
+    public CoverThumbnailPipeline(CoverStorage coverStorage,
+                                  CoverThumbnailCache thumbnailCache,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${bookstore.covers.thumbnails.workers}") int workers,
+                                  @Value("${bookstore.covers.thumbnails.queue-capacity}")
+                                  int queueCapacity) {
+        this.coverStorage = coverStorage;
+        this.thumbnailCache = thumbnailCache;
+        this.queueDirectory = coverStorage.getDirectory().resolve(QUEUE);
+        this.failedDirectory = coverStorage.getDirectory().resolve(FAILED);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("cover-thumbnails-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.processingTimer = Timer.builder("bookstore.thumbnails.processing")
+                .register(meterRegistry);
+        this.failures = Counter.builder("bookstore.thumbnails.failures")
+                .register(meterRegistry);
+        Gauge.builder("bookstore.thumbnails.queue.depth", pending, Set::size)
+                .register(meterRegistry);
+    }
+
+    public void enqueue(String coverImage) {
+        if (coverImage == null || !coverImage.startsWith(CoverImageService.COVERS_PATH)) {
+            return;
+        }
+        String name = coverImage.substring(CoverImageService.COVERS_PATH.length());
+        if (!coverStorage.isCoverName(name) || pending.contains(name) || isFailed(name)
+                || isGenerated(name)) {
+            return;
+        }
+        try {
+            Files.createDirectories(queueDirectory);
+            Files.write(queueDirectory.resolve(name), new byte[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        submit(name);
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.covers.thumbnails.sweep-interval}")
+    public void sweep() throws IOException {
+        if (!Files.isDirectory(queueDirectory)) {
+            return;
+        }
+        try (Stream<Path> markers = Files.list(queueDirectory)) {
+            markers.map(marker -> marker.getFileName().toString())
+                    .filter(coverStorage::isCoverName)
+                    .filter(name -> !isFailed(name))
+                    .forEach(this::submit);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean isFailed(String name) {
+        if (failed.contains(name)) {
+            return true;
+        }
+        if (Files.exists(failedDirectory.resolve(name))) {
+            failed.add(name);
+            return true;
+        }
+        return false;
+    }
+
+    private void markFailed(String name) {
+        failed.add(name);
+        try {
+            Files.createDirectories(failedDirectory);
+            Files.write(failedDirectory.resolve(name), new byte[0]);
+        } catch (IOException e) {
+            failures.increment();
+        }
+    }
+
+    private boolean isGenerated(String name) {
+        for (ThumbnailSize size : ThumbnailSize.values()) {
+            if (thumbnailCache.get(name, size) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void submit(String name) {
+        if (!pending.add(name)) {
+            return;
+        }
+        try {
+            executor.execute(() -> process(name));
+        } catch (RejectedExecutionException e) {
+            pending.remove(name);
+        }
+    }
+
+    private void process(String name) {
+        Timer.Sample sample = Timer.start();
+        try {
+            generate(name);
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            markFailed(name);
+        } finally {
+            sample.stop(processingTimer);
+            try {
+                Files.deleteIfExists(queueDirectory.resolve(name));
+            } catch (IOException e) {
+                failures.increment();
+            }
+            pending.remove(name);
+        }
+    }
+
+    private void generate(String name) throws IOException {
+        CoverImageService.CoverFile cover = coverStorage.find(name);
+        BufferedImage image = ImageIO.read(cover.path().toFile());
+        if (image == null) {
+            throw new IOException("Unreadable cover " + name);
+        }
+        String format = CoverStorage.extension(name);
+        for (ThumbnailSize size : ThumbnailSize.values()) {
+            Path target = thumbnailCache.path(name, size);
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), "thumbnail-", ".tmp");
+            try {
+                if (!ImageIO.write(scale(image, size.getWidth(), format), format,
+                        temp.toFile())) {
+                    throw new IOException("No writer for " + format);
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                thumbnailCache.put(target, Files.size(target));
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int maxWidth, String format) {
+        int width = Math.min(maxWidth, image.getWidth());
+        int height = Math.max(1, (int) Math.round(
+                (double) image.getHeight() * width / image.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, JPEG.equals(format)
+                ? BufferedImage.TYPE_INT_RGB
+                : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING,
+                    RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+}
@@ -0,0 +1,226 @@
+package com.bookstore.service;
+
+import com.bookstore.repository.BookJdbcRepository;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class IsbnIndex {
+    private static final long NO_ISBN = 0L;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final String ISBN_13_PREFIX = "978";
+
+    private final BookJdbcRepository bookJdbcRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            keys = new long[INITIAL_CAPACITY];
+            ids = new long[INITIAL_CAPACITY];
+            size = 0;
+            bookJdbcRepository.forEachIsbn(row ->
+                    insert(pack(row.isbn()), row.deleted() ? -row.id() : row.id()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static String normalize(String isbn) {
+        long key = pack(isbn);
+        return key == NO_ISBN ? isbn : Long.toString(key);
+    }
+
+    public Long find(String isbn) {
+        long id = lookup(isbn);
+        return id > 0 ? id : null;
+    }
+
+    public boolean isTaken(String isbn, Long exceptId) {
+        long id = Math.abs(lookup(isbn));
+        return id != 0 && (exceptId == null || id != exceptId);
+    }
+
+    public void put(String isbn, Long id) {
+        lock.writeLock().lock();
+        try {
+            insert(pack(isbn), id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markDeleted(String isbn, Long id) {
+        lock.writeLock().lock();
+        try {
+            long key = pack(isbn);
+            int slot = slot(key);
+            if (slot >= 0 && ids[slot] == id) {
+                ids[slot] = -id;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String isbn, Long id) {
+        lock.writeLock().lock();
+        try {
+            long key = pack(isbn);
+            int slot = slot(key);
+            if (slot >= 0 && Math.abs(ids[slot]) == id) {
+                removeSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long pack(String isbn) {
+        if (isbn == null) {
+            return NO_ISBN;
+        }
+        StringBuilder digits = new StringBuilder(13);
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c >= '0' && c <= '9' || (c == 'X' || c == 'x') && i == isbn.length() - 1) {
+                digits.append(c);
+            } else if (c != '-' && c != ' ') {
+                return NO_ISBN;
+            }
+        }
+        if (digits.length() == 10) {
+            if (!isValidIsbn10(digits)) {
+                return NO_ISBN;
+            }
+            digits.setLength(9);
+            digits.insert(0, ISBN_13_PREFIX);
+            digits.append(isbn13CheckDigit(digits));
+        }
+        if (digits.length() != 13 || digits.indexOf("X") >= 0 || digits.indexOf("x") >= 0
+                || digits.charAt(12) - '0' != isbn13CheckDigit(digits)) {
+            return NO_ISBN;
+        }
+        return Long.parseLong(digits.toString());
+    }
+
+    private static boolean isValidIsbn10(CharSequence digits) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = digits.charAt(i);
+            int value = c == 'X' || c == 'x' ? 10 : c - '0';
+            sum += (10 - i) * value;
+        }
+        return sum % 11 == 0;
+    }
+
+    private static int isbn13CheckDigit(CharSequence digits) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (i % 2 == 0 ? 1 : 3) * (digits.charAt(i) - '0');
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private long lookup(String isbn) {
+        long key = pack(isbn);
+        if (key != NO_ISBN || isbn == null) {
+            return get(key);
+        }
+        return bookJdbcRepository.findByIsbn(isbn)
+                .map(row -> row.deleted() ? -row.id() : row.id())
+                .orElse(0L);
+    }
+
+    private long get(long key) {
+        if (key == NO_ISBN) {
+            return 0;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = slot(key);
+            return slot >= 0 ? ids[slot] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(long key, long id) {
+        if (key == NO_ISBN) {
+            return;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = hash(key, mask);
+        while (keys[i] != NO_ISBN && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == NO_ISBN) {
+            keys[i] = key;
+            size++;
+        }
+        ids[i] = id;
+    }
+
+    private int slot(long key) {
+        if (key == NO_ISBN) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int i = hash(key, mask);
+        while (keys[i] != NO_ISBN) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int i = (slot + 1) & mask;
+        while (keys[i] != NO_ISBN) {
+            int home = hash(keys[i], mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                ids[hole] = ids[i];
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[hole] = NO_ISBN;
+        ids[hole] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        size = 0;
+        long[] oldKeys = keys;
+        long[] oldIds = ids;
+        keys = new long[capacity];
+        ids = new long[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != NO_ISBN) {
+                insert(oldKeys[i], oldIds[i]);
+            }
+        }
+    }
+
+    private static int hash(long key, int mask) {
+        return (int) ((key * HASH_MULTIPLIER) >>> 32) & mask;
+    }
+}
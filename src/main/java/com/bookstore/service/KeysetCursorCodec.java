@@ -0,0 +1,110 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.CursorPageDto;
+import com.bookstore.exception.InvalidCursorException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+@Component
+@RequiredArgsConstructor
+public class KeysetCursorCodec {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final String ID = "id";
+    private static final String FORWARD = "F";
+    private static final String BACKWARD = "B";
+
+    private final ObjectMapper objectMapper;
+
+    public Sort toKeysetSort(Sort requested, Map<String, Class<?>> keyTypes) {
+        Sort.Order primary = requested.stream()
+                .findFirst()
+                .orElse(Sort.Order.asc(ID));
+        if (!keyTypes.containsKey(primary.getProperty())) {
+            throw new InvalidCursorException("Sorting by '" + primary.getProperty()
+                    + "' is not supported, allowed: " + keyTypes.keySet());
+        }
+        if (ID.equals(primary.getProperty())) {
+            return Sort.by(primary);
+        }
+        return Sort.by(primary, new Sort.Order(primary.getDirection(), ID));
+    }
+
+    public int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    public KeysetScrollPosition decode(String cursor, Sort sort, Map<String, Class<?>> keyTypes) {
+        if (!StringUtils.hasText(cursor)) {
+            return ScrollPosition.keyset();
+        }
+        CursorPayload payload;
+        try {
+            payload = objectMapper.readValue(
+                    Base64.getUrlDecoder().decode(cursor), CursorPayload.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (payload.k() == null || !payload.k().keySet().equals(propertiesOf(sort))) {
+            throw new InvalidCursorException("Cursor does not match the requested sort");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        payload.k().forEach((property, value) ->
+                keys.put(property, objectMapper.convertValue(value, keyTypes.get(property))));
+        return BACKWARD.equals(payload.d())
+                ? ScrollPosition.backward(keys)
+                : ScrollPosition.forward(keys);
+    }
+
+    public <T, R> CursorPageDto<R> toPage(Window<T> window, KeysetScrollPosition position,
+                                          Function<List<T>, List<R>> mapper) {
+        List<R> content = mapper.apply(window.getContent());
+        if (window.isEmpty()) {
+            return new CursorPageDto<>(content, null, null, 0);
+        }
+        int last = window.size() - 1;
+        String next;
+        String prev;
+        if (position.scrollsBackward()) {
+            next = encode(FORWARD, window.positionAt(last));
+            prev = window.hasNext() ? encode(BACKWARD, window.positionAt(0)) : null;
+        } else {
+            next = window.hasNext() ? encode(FORWARD, window.positionAt(last)) : null;
+            prev = position.isInitial() ? null : encode(BACKWARD, window.positionAt(0));
+        }
+        return new CursorPageDto<>(content, next, prev, content.size());
+    }
+
+    private String encode(String direction, ScrollPosition position) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    objectMapper.writeValueAsBytes(new CursorPayload(direction, keys)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't encode cursor", e);
+        }
+    }
+
+    private Set<String> propertiesOf(Sort sort) {
+        return sort.stream()
+                .map(Sort.Order::getProperty)
+                .collect(Collectors.toSet());
+    }
+
+    private record CursorPayload(String d, Map<String, Object> k) {
+    }
+}
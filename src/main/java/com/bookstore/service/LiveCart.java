@@ -0,0 +1,198 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.model.CartItem;
+import com.bookstore.model.ShoppingCart;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class LiveCart {
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Item> items;
+    private long version;
+    private long persistedVersion;
+    private long generation;
+    private long flushedGeneration;
+    private boolean retired;
+    private volatile String journalLine;
+    private volatile long lastAccess;
+
+    private LiveCart(List<Item> items, long version) {
+        this.items = items;
+        this.version = version;
+        this.persistedVersion = version;
+    }
+
+    static LiveCart of(ShoppingCart cart) {
+        return new LiveCart(cart.getCartItems().stream()
+                .sorted(Comparator.comparing(CartItem::getId))
+                .map(item -> new Item(item.getId(), item.getBook().getId(),
+                        item.getQuantity()))
+                .toList(), cart.getVersion());
+    }
+
+    boolean lock() {
+        lock.lock();
+        if (retired) {
+            lock.unlock();
+            return false;
+        }
+        lastAccess = System.nanoTime();
+        return true;
+    }
+
+    boolean tryLock() {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        if (retired) {
+            lock.unlock();
+            return false;
+        }
+        return true;
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    void retire() {
+        retired = true;
+    }
+
+    Draft draft() {
+        return new Draft(new ArrayList<>(items));
+    }
+
+    void commit(Draft draft, String journalLine) {
+        items = List.copyOf(draft.items);
+        version++;
+        generation++;
+        this.journalLine = journalLine;
+    }
+
+    Snapshot snapshot(Item changed) {
+        return new Snapshot(version, items, changed);
+    }
+
+    List<Item> items() {
+        return items;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    long persistedVersion() {
+        return persistedVersion;
+    }
+
+    boolean isDirty() {
+        return generation != flushedGeneration;
+    }
+
+    void flushed(long flushedGeneration, long persistedVersion) {
+        this.flushedGeneration = Math.max(this.flushedGeneration, flushedGeneration);
+        this.persistedVersion = persistedVersion;
+        if (!isDirty()) {
+            journalLine = null;
+        }
+    }
+
+    String journalLine() {
+        return journalLine;
+    }
+
+    boolean isIdle(long idleNanos) {
+        return journalLine == null && System.nanoTime() - lastAccess > idleNanos;
+    }
+
+    record Item(Long id, Long bookId, int quantity) {
+        Item withId(Long id) {
+            return new Item(id, bookId, quantity);
+        }
+
+        Item withQuantity(int quantity) {
+            return new Item(id, bookId, quantity);
+        }
+    }
+
+    record Snapshot(long version, List<Item> items, Item changed) {
+    }
+
+    final class Draft {
+        private final List<Item> items;
+        private final List<Long> removedIds = new ArrayList<>();
+
+        private Draft(List<Item> items) {
+            this.items = items;
+        }
+
+        List<Item> items() {
+            return items;
+        }
+
+        List<Item> added() {
+            return items.stream()
+                    .filter(item -> item.id() == null)
+                    .toList();
+        }
+
+        List<Long> removedIds() {
+            return removedIds;
+        }
+
+        Item add(Long bookId, int quantity) {
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                if (item.bookId().equals(bookId)) {
+                    items.set(i, item.withQuantity(item.quantity() + quantity));
+                    return items.get(i);
+                }
+            }
+            Item item = new Item(null, bookId, quantity);
+            items.add(item);
+            return item;
+        }
+
+        Item update(Long cartItemId, int quantity) {
+            int index = indexOf(cartItemId);
+            items.set(index, items.get(index).withQuantity(quantity));
+            return items.get(index);
+        }
+
+        Item remove(Long cartItemId) {
+            Item item = items.remove(indexOf(cartItemId));
+            removedIds.add(item.id());
+            return item;
+        }
+
+        void assign(Map<Long, Long> idsByBookId) {
+            items.replaceAll(item -> item.id() == null
+                    ? item.withId(idsByBookId.get(item.bookId()))
+                    : item);
+        }
+
+        Item resolve(Item item) {
+            if (item == null || item.id() != null) {
+                return item;
+            }
+            return items.stream()
+                    .filter(candidate -> candidate.bookId().equals(item.bookId()))
+                    .findFirst()
+                    .orElse(item);
+        }
+
+        private int indexOf(Long cartItemId) {
+            for (int i = 0; i < items.size(); i++) {
+                if (cartItemId.equals(items.get(i).id())) {
+                    return i;
+                }
+            }
+            throw new EntityNotFoundException("Cart item not found with id: " + cartItemId);
+        }
+    }
+}
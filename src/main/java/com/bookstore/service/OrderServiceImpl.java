@@ -18,6 +18,8 @@ import com.bookstore.repository.OrderItemRepository;
 import com.bookstore.repository.OrderRepository;
 import com.bookstore.repository.ShoppingCartRepository;
 import com.bookstore.repository.UserRepository;
+import com.bookstore.security.AuthenticatedUser;
+import com.bookstore.security.CurrentUserProvider;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -26,7 +28,6 @@ import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -39,15 +40,22 @@ public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final OrderItemMapper orderItemMapper;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final ShoppingCartService shoppingCartService;
+    private final CurrentUserProvider currentUserProvider;
 
     @Override
     public OrderResponseDto placeOrder(OrderRequestDto requestDto) {
-        User user = getCurrentUser();
+        AuthenticatedUser user = currentUserProvider.get();
+        shoppingCartService.prepareCheckout(user);
         ShoppingCart cart = getShoppingCartForUser(user);
         validateCartNotEmpty(cart);
 
-        Order order = buildOrderFromCart(user, cart, requestDto.getShippingAddress());
+        Order order = buildOrderFromCart(userRepository.getReferenceById(user.id()), cart,
+                requestDto.getShippingAddress());
         orderRepository.save(order);
+        AfterCommit.run(() -> order.getOrderItems().forEach(item ->
+                bookSuggestIndex.recordSale(item.getBook().getId(), item.getQuantity())));
         clearCart(cart);
 
         return orderMapper.toDto(order);
@@ -55,8 +63,8 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public Page<OrderResponseDto> getOrderHistory(Pageable pageable) {
-        User user = getCurrentUser();
-        Page<Order> orders = orderRepository.findAllByUser(user, pageable);
+        Page<Order> orders = orderRepository.findAllByUserId(currentUserProvider.get().id(),
+                pageable);
         return orders.map(orderMapper::toDto);
 
     }
@@ -93,17 +101,10 @@ public class OrderServiceImpl implements OrderService {
         return orderItemMapper.toDto(item);
     }
 
-    private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
+    private ShoppingCart getShoppingCartForUser(AuthenticatedUser user) {
+        return shoppingCartRepository.findByUserId(user.id())
                 .orElseThrow(() -> new EntityNotFoundException(
-                        "User not found with email: " + email));
-    }
-
-    private ShoppingCart getShoppingCartForUser(User user) {
-        return shoppingCartRepository.findByUser(user)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "Shopping cart with user id " + user.getId() + " not found"));
+                        "Shopping cart with user id " + user.id() + " not found"));
     }
 
     private void validateCartNotEmpty(ShoppingCart cart) {
@@ -1,9 +1,13 @@
 package com.bookstore.service;
 
 import com.bookstore.dto.ShoppingCartResponseDto;
+import com.bookstore.dto.cart.CartDeltaResponseDto;
 import com.bookstore.dto.cart.CartItemRequestDto;
 import com.bookstore.dto.cart.CartItemUpdateRequestDto;
+import com.bookstore.dto.cart.CartOperationDto;
 import com.bookstore.model.User;
+import com.bookstore.security.AuthenticatedUser;
+import java.util.List;
 
 public interface ShoppingCartService {
 
@@ -11,11 +15,20 @@ public interface ShoppingCartService {
 
     ShoppingCartResponseDto addItemToCart(CartItemRequestDto requestDto);
 
+    CartDeltaResponseDto addItemToCartDelta(CartItemRequestDto requestDto);
+
     ShoppingCartResponseDto updateCartItemQuantity(Long cartItemId,
                                                CartItemUpdateRequestDto requestDto);
 
+    CartDeltaResponseDto updateCartItemQuantityDelta(Long cartItemId,
+                                                     CartItemUpdateRequestDto requestDto);
+
     void removeCartItem(Long cartItemId);
 
+    ShoppingCartResponseDto applyOperations(List<CartOperationDto> operations);
+
     void createCartForUser(User user);
 
+    void prepareCheckout(AuthenticatedUser user);
+
 }
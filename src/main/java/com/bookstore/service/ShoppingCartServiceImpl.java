@@ -1,9 +1,12 @@
 package com.bookstore.service;
 
 import com.bookstore.dto.ShoppingCartResponseDto;
+import com.bookstore.dto.cart.CartDeltaResponseDto;
 import com.bookstore.dto.cart.CartItemRequestDto;
 import com.bookstore.dto.cart.CartItemUpdateRequestDto;
+import com.bookstore.dto.cart.CartOperationDto;
 import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.exception.InvalidCartOperationException;
 import com.bookstore.mapper.CartItemMapper;
 import com.bookstore.mapper.ShoppingCartMapper;
 import com.bookstore.model.Book;
@@ -12,105 +15,230 @@ import com.bookstore.model.ShoppingCart;
 import com.bookstore.model.User;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.CartItemRepository;
+import com.bookstore.repository.CartTotalsRow;
 import com.bookstore.repository.ShoppingCartRepository;
-import com.bookstore.repository.UserRepository;
+import com.bookstore.security.AuthenticatedUser;
+import com.bookstore.security.CurrentUserProvider;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@ConditionalOnProperty(name = "bookstore.cart.store", havingValue = "database",
+        matchIfMissing = true)
 @RequiredArgsConstructor
 public class ShoppingCartServiceImpl implements ShoppingCartService {
 
     private final ShoppingCartRepository shoppingCartRepository;
     private final CartItemRepository cartItemRepository;
     private final BookRepository bookRepository;
-    private final UserRepository userRepository;
     private final ShoppingCartMapper shoppingCartMapper;
     private final CartItemMapper cartItemMapper;
+    private final CartMutationExecutor cartMutationExecutor;
+    private final CurrentUserProvider currentUserProvider;
 
     @Override
     @Transactional(readOnly = true)
     public ShoppingCartResponseDto getCartForCurrentUser() {
-        User user = getCurrentUser();
-        ShoppingCart cart = shoppingCartRepository.findByUser(user)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "Shopping cart not found for user with id " + user.getId()));
-        return shoppingCartMapper.toDto(cart);
+        return shoppingCartMapper.toDto(findCart(currentUserProvider.get()));
     }
 
     @Override
-    @Transactional
     public ShoppingCartResponseDto addItemToCart(CartItemRequestDto requestDto) {
-        User user = getCurrentUser();
-        ShoppingCart cart = shoppingCartRepository.findByUser(user)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "Shopping cart not found for user with id " + user.getId()));
+        AuthenticatedUser user = currentUserProvider.get();
+        return cartMutationExecutor.execute(() -> {
+            addItem(user, requestDto);
+            return shoppingCartMapper.toDto(findCart(user));
+        });
+    }
 
-        Book book = bookRepository.findById(requestDto.bookId())
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "Book not found with id: " + requestDto.bookId()));
+    @Override
+    public CartDeltaResponseDto addItemToCartDelta(CartItemRequestDto requestDto) {
+        AuthenticatedUser user = currentUserProvider.get();
+        return cartMutationExecutor.execute(() -> toDelta(user, addItem(user, requestDto)));
+    }
 
-        CartItem existingItem = cart.getCartItems().stream()
-                .filter(ci -> ci.getBook().getId().equals(book.getId()))
-                .findFirst()
-                .orElse(null);
-
-        if (existingItem != null) {
-            existingItem.setQuantity(existingItem.getQuantity() + requestDto.quantity());
-        } else {
-            CartItem newItem = new CartItem();
-            newItem.setBook(book);
-            newItem.setQuantity(requestDto.quantity());
-            newItem.setShoppingCart(cart);
-            cart.getCartItems().add(newItem);
-        }
+    @Override
+    public ShoppingCartResponseDto updateCartItemQuantity(Long cartItemId,
+                                                          CartItemUpdateRequestDto requestDto) {
+        AuthenticatedUser user = currentUserProvider.get();
+        return cartMutationExecutor.execute(() -> {
+            updateItem(user, cartItemId, requestDto);
+            return shoppingCartMapper.toDto(findCart(user));
+        });
+    }
 
+    @Override
+    public CartDeltaResponseDto updateCartItemQuantityDelta(Long cartItemId,
+                                                            CartItemUpdateRequestDto requestDto) {
+        AuthenticatedUser user = currentUserProvider.get();
+        return cartMutationExecutor.execute(
+                () -> toDelta(user, updateItem(user, cartItemId, requestDto)));
+    }
+
+    @Override
+    public void removeCartItem(Long cartItemId) {
+        AuthenticatedUser user = currentUserProvider.get();
+        cartMutationExecutor.run(() -> {
+            touchCart(user);
+            if (cartItemRepository.deleteByIdAndCartId(cartItemId, user.cartId()) == 0) {
+                throw new EntityNotFoundException("Cart item not found with id: " + cartItemId);
+            }
+        });
+    }
+
+    @Override
+    public ShoppingCartResponseDto applyOperations(List<CartOperationDto> operations) {
+        operations.forEach(ShoppingCartServiceImpl::validate);
+        AuthenticatedUser user = currentUserProvider.get();
+        return cartMutationExecutor.execute(() -> {
+            touchCart(user);
+            ShoppingCart cart = findCart(user);
+            Map<Long, Book> books = bookRepository.findAllById(operations.stream()
+                            .filter(operation -> operation.type() == CartOperationDto.Type.ADD)
+                            .map(CartOperationDto::bookId)
+                            .collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            Map<Long, CartItem> itemsById = new HashMap<>();
+            Map<Long, CartItem> itemsByBookId = new HashMap<>();
+            Map<Long, CartItem> removedByBookId = new HashMap<>();
+            for (CartItem item : cart.getCartItems()) {
+                itemsById.put(item.getId(), item);
+                itemsByBookId.put(item.getBook().getId(), item);
+            }
+            for (CartOperationDto operation : operations) {
+                switch (operation.type()) {
+                    case ADD -> {
+                        Book book = books.get(operation.bookId());
+                        if (book == null) {
+                            throw new EntityNotFoundException(
+                                    "Book not found with id: " + operation.bookId());
+                        }
+                        CartItem item = itemsByBookId.get(book.getId());
+                        if (item != null) {
+                            item.setQuantity(item.getQuantity() + operation.quantity());
+                        } else {
+                            item = removedByBookId.remove(book.getId());
+                            if (item == null) {
+                                item = new CartItem();
+                                item.setBook(book);
+                                item.setShoppingCart(cart);
+                            }
+                            item.setQuantity(operation.quantity());
+                            cart.getCartItems().add(item);
+                            itemsByBookId.put(book.getId(), item);
+                            if (item.getId() != null) {
+                                itemsById.put(item.getId(), item);
+                            }
+                        }
+                    }
+                    case UPDATE -> findItem(itemsById, operation.cartItemId())
+                            .setQuantity(operation.quantity());
+                    case REMOVE -> {
+                        CartItem item = findItem(itemsById, operation.cartItemId());
+                        itemsById.remove(item.getId());
+                        itemsByBookId.remove(item.getBook().getId());
+                        removedByBookId.put(item.getBook().getId(), item);
+                        cart.getCartItems().remove(item);
+                    }
+                    default -> throw new IllegalStateException(
+                            "Unexpected cart operation: " + operation.type());
+                }
+            }
+            shoppingCartRepository.saveAndFlush(cart);
+            return shoppingCartMapper.toDto(cart);
+        });
+    }
+
+    @Override
+    public void createCartForUser(User user) {
+        ShoppingCart cart = new ShoppingCart();
+        cart.setUser(user);
         shoppingCartRepository.save(cart);
-        return shoppingCartMapper.toDto(cart);
     }
 
     @Override
-    @Transactional
-    public ShoppingCartResponseDto updateCartItemQuantity(Long cartItemId,
-                                                          CartItemUpdateRequestDto requestDto) {
-        User user = getCurrentUser();
-        ShoppingCart cart = shoppingCartRepository.findByUser(user)
+    public void prepareCheckout(AuthenticatedUser user) {
+        shoppingCartRepository.incrementVersion(user.cartId());
+    }
+
+    private CartItem addItem(AuthenticatedUser user, CartItemRequestDto requestDto) {
+        touchCart(user);
+        Book book = bookRepository.findById(requestDto.bookId())
                 .orElseThrow(() -> new EntityNotFoundException(
-                        "Shopping cart not found for user with id " + user.getId()));
+                        "Book not found with id: " + requestDto.bookId()));
+        if (cartItemRepository.incrementQuantity(
+                user.cartId(), book.getId(), requestDto.quantity()) > 0) {
+            return cartItemRepository.findByShoppingCartIdAndBookId(user.cartId(), book.getId())
+                    .orElseThrow();
+        }
+        CartItem newItem = new CartItem();
+        newItem.setBook(book);
+        newItem.setQuantity(requestDto.quantity());
+        newItem.setShoppingCart(shoppingCartRepository.getReferenceById(user.cartId()));
+        return cartItemRepository.saveAndFlush(newItem);
+    }
 
-        CartItem item = cartItemRepository.findByIdAndShoppingCartId(cartItemId, cart.getId())
+    private CartItem updateItem(AuthenticatedUser user, Long cartItemId,
+                                CartItemUpdateRequestDto requestDto) {
+        touchCart(user);
+        CartItem item = cartItemRepository.findByIdAndShoppingCartId(cartItemId, user.cartId())
                 .orElseThrow(() ->
                         new EntityNotFoundException(
                                 "Cart item not found for cart with id " + cartItemId));
-
         item.setQuantity(requestDto.getQuantity());
-        cartItemRepository.save(item);
-        return shoppingCartMapper.toDto(cart);
+        return cartItemRepository.saveAndFlush(item);
     }
 
-    @Override
-    @Transactional
-    public void removeCartItem(Long cartItemId) {
-        if (!cartItemRepository.existsById(cartItemId)) {
+    private CartDeltaResponseDto toDelta(AuthenticatedUser user, CartItem item) {
+        CartTotalsRow totals = cartItemRepository.findTotals(user.cartId());
+        return new CartDeltaResponseDto(
+                user.cartId(),
+                shoppingCartRepository.findVersionById(user.cartId()).orElseThrow(),
+                List.of(cartItemMapper.toDto(item)),
+                totals.items(),
+                totals.quantity() == null ? 0 : totals.quantity(),
+                totals.price() == null ? BigDecimal.ZERO : totals.price());
+    }
+
+    static void validate(CartOperationDto operation) {
+        boolean valid = switch (operation.type()) {
+            case ADD -> operation.bookId() != null && operation.quantity() != null;
+            case UPDATE -> operation.cartItemId() != null && operation.quantity() != null;
+            case REMOVE -> operation.cartItemId() != null;
+        };
+        if (!valid) {
+            throw new InvalidCartOperationException(operation.type() + " needs "
+                    + (operation.type() == CartOperationDto.Type.ADD ? "bookId" : "cartItemId")
+                    + (operation.type() == CartOperationDto.Type.REMOVE ? "" : " and quantity"));
+        }
+    }
+
+    private static CartItem findItem(Map<Long, CartItem> itemsById, Long cartItemId) {
+        CartItem item = itemsById.get(cartItemId);
+        if (item == null) {
             throw new EntityNotFoundException("Cart item not found with id: " + cartItemId);
         }
-        cartItemRepository.deleteById(cartItemId);
+        return item;
     }
 
-    @Override
-    public void createCartForUser(User user) {
-        ShoppingCart cart = new ShoppingCart();
-        cart.setUser(user);
-        shoppingCartRepository.save(cart);
+    private ShoppingCart findCart(AuthenticatedUser user) {
+        return shoppingCartRepository.findByUserId(user.id())
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Shopping cart not found for user with id " + user.id()));
     }
 
-    private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException(
-                        "User not found with email: " + email));
+    private void touchCart(AuthenticatedUser user) {
+        if (shoppingCartRepository.incrementVersion(user.cartId()) == 0) {
+            throw new EntityNotFoundException(
+                    "Shopping cart not found for user with id " + user.id());
+        }
     }
 }
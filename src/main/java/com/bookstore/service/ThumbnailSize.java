@@ -0,0 +1,17 @@
+package com.bookstore.service;
+
+public enum ThumbnailSize {
+    SMALL(96),
+    MEDIUM(200),
+    LARGE(400);
+
+    private final int width;
+
+    ThumbnailSize(int width) {
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+}
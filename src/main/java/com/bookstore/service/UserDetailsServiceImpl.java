@@ -1,6 +1,7 @@
 package com.bookstore.service;
 
 import com.bookstore.repository.UserRepository;
+import com.bookstore.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -19,4 +20,12 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found with email: " + username));
     }
+
+    public AuthenticatedUser loadAuthenticatedUser(String username)
+            throws UsernameNotFoundException {
+        return userRepository.findByEmail(username)
+                .map(AuthenticatedUser::of)
+                .orElseThrow(() ->
+                        new UsernameNotFoundException("User not found with email: " + username));
+    }
 }
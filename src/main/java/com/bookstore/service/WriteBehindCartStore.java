@@ -0,0 +1,372 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.model.Book;
+import com.bookstore.model.CartItem;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CartItemRepository;
+import com.bookstore.repository.ShoppingCartRepository;
+import com.bookstore.security.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "bookstore.cart.store", havingValue = "memory")
+public class WriteBehindCartStore {
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushBatchSize;
+    private final long idleNanos;
+    private final CartJournal journal;
+    private final Map<Long, LiveCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyIds = ConcurrentHashMap.newKeySet();
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private final Counter flushedCarts;
+    private final Counter flushFailures;
+    private final Counter flushConflicts;
+
+    public WriteBehindCartStore(ShoppingCartRepository shoppingCartRepository,
+                                CartItemRepository cartItemRepository,
+                                BookRepository bookRepository,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${bookstore.cart.flush-batch-size}") int flushBatchSize,
+                                @Value("${bookstore.cart.idle-timeout}") Duration idleTimeout,
+                                @Value("${bookstore.cart.journal.path}") String journalPath,
+                                @Value("${bookstore.cart.journal.fsync}") boolean fsync) {
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.flushBatchSize = flushBatchSize;
+        this.idleNanos = idleTimeout.toNanos();
+        this.journal = journalPath.isBlank() ? null : new CartJournal(Path.of(journalPath), fsync);
+        this.flushedCarts = Counter.builder("bookstore.cart.flush.carts")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("bookstore.cart.flush.failures")
+                .register(meterRegistry);
+        this.flushConflicts = Counter.builder("bookstore.cart.flush.conflicts")
+                .register(meterRegistry);
+        Gauge.builder("bookstore.cart.live", carts, Map::size).register(meterRegistry);
+        Gauge.builder("bookstore.cart.dirty", dirtyIds, Set::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void replayJournal() {
+        if (journal == null) {
+            return;
+        }
+        Map<Long, Map<Long, Integer>> journaled = journal.read();
+        if (!journaled.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> journaled.forEach(this::restore));
+        }
+        journal.rewrite(List.of());
+    }
+
+    LiveCart.Snapshot read(AuthenticatedUser user) {
+        LiveCart cart = lockCart(user);
+        try {
+            return cart.snapshot(null);
+        } finally {
+            cart.unlock();
+        }
+    }
+
+    LiveCart.Snapshot mutate(AuthenticatedUser user,
+                             Function<LiveCart.Draft, LiveCart.Item> mutation) {
+        journalLock.readLock().lock();
+        try {
+            LiveCart cart = lockCart(user);
+            try {
+                LiveCart.Draft draft = cart.draft();
+                LiveCart.Item changed = draft.resolve(apply(user.cartId(), draft, mutation));
+                cart.commit(draft, appendJournal(user.cartId(), draft.items()));
+                dirtyIds.add(user.cartId());
+                return cart.snapshot(changed);
+            } finally {
+                cart.unlock();
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+    void checkout(AuthenticatedUser user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Checkout requires an active transaction");
+        }
+        Long cartId = user.cartId();
+        LiveCart cart = lockCart(user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                appendJournal(cartId, List.of());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        retire(cartId, cart);
+                    } else {
+                        appendJournal(cartId, cart.items());
+                    }
+                } finally {
+                    cart.unlock();
+                }
+            }
+        });
+        if (!cart.isDirty()) {
+            shoppingCartRepository.incrementVersion(cartId);
+            return;
+        }
+        if (shoppingCartRepository.incrementVersion(cartId, cart.persistedVersion()) == 0) {
+            throw new ConcurrencyFailureException(
+                    "Shopping cart " + cartId + " was changed concurrently");
+        }
+        writeQuantities(cartId, cart.items());
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.cart.flush-interval}")
+    public void flush() {
+        List<PendingFlush> batch = new ArrayList<>();
+        for (Long cartId : dirtyIds) {
+            LiveCart cart = carts.get(cartId);
+            if (cart == null) {
+                dirtyIds.remove(cartId);
+            } else if (cart.tryLock()) {
+                try {
+                    dirtyIds.remove(cartId);
+                    batch.add(new PendingFlush(cartId, cart, cart.items(), cart.generation(),
+                            cart.persistedVersion()));
+                } finally {
+                    cart.unlock();
+                }
+            }
+            if (batch.size() == flushBatchSize) {
+                flush(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+        evictIdle();
+        compactJournal();
+    }
+
+    private void flush(List<PendingFlush> batch) {
+        Set<Long> written;
+        try {
+            written = transactionTemplate.execute(status -> {
+                Set<Long> cartIds = new HashSet<>();
+                for (PendingFlush pending : batch) {
+                    if (shoppingCartRepository.incrementVersion(
+                            pending.cartId(), pending.persistedVersion()) > 0) {
+                        writeQuantities(pending.cartId(), pending.items());
+                        cartIds.add(pending.cartId());
+                    }
+                }
+                return cartIds;
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.warn("Flushing shopping cart {} failed", batch.get(0).cartId(), e);
+                flushFailures.increment();
+                dirtyIds.add(batch.get(0).cartId());
+            } else {
+                log.warn("Flushing {} shopping carts failed, retrying one by one",
+                        batch.size(), e);
+                batch.forEach(pending -> flush(List.of(pending)));
+            }
+            return;
+        }
+        for (PendingFlush pending : batch) {
+            LiveCart cart = pending.cart();
+            if (!cart.lock()) {
+                continue;
+            }
+            try {
+                if (Objects.requireNonNull(written).contains(pending.cartId())) {
+                    flushedCarts.increment();
+                    cart.flushed(pending.generation(), pending.persistedVersion() + 1);
+                } else {
+                    flushConflicts.increment();
+                    retire(pending.cartId(), cart);
+                }
+            } finally {
+                cart.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void restore(Long cartId, Map<Long, Integer> items) {
+        if (shoppingCartRepository.incrementVersion(cartId) == 0) {
+            return;
+        }
+        Map<Long, CartItem> existing = cartItemRepository.findAllByShoppingCartId(cartId).stream()
+                .collect(Collectors.toMap(item -> item.getBook().getId(), Function.identity()));
+        Set<Long> books = bookRepository.findAllById(items.keySet()).stream()
+                .map(Book::getId)
+                .collect(Collectors.toSet());
+        List<CartItem> rows = new ArrayList<>(items.size());
+        items.forEach((bookId, quantity) -> {
+            CartItem row = existing.remove(bookId);
+            if (row == null && books.contains(bookId)) {
+                row = newRow(cartId, bookId);
+            }
+            if (row != null) {
+                row.setQuantity(quantity);
+                rows.add(row);
+            }
+        });
+        cartItemRepository.deleteAll(existing.values());
+        cartItemRepository.saveAllAndFlush(rows);
+    }
+
+    private LiveCart.Item apply(Long cartId, LiveCart.Draft draft,
+                                Function<LiveCart.Draft, LiveCart.Item> mutation) {
+        LiveCart.Item changed = mutation.apply(draft);
+        List<LiveCart.Item> added = draft.added();
+        if (added.isEmpty() && draft.removedIds().isEmpty()) {
+            return changed;
+        }
+        draft.assign(transactionTemplate.execute(status -> {
+            draft.removedIds().forEach(id -> cartItemRepository.deleteByIdAndCartId(id, cartId));
+            List<CartItem> rows = added.stream()
+                    .map(item -> {
+                        CartItem row = newRow(cartId, item.bookId());
+                        row.setQuantity(item.quantity());
+                        return row;
+                    })
+                    .toList();
+            cartItemRepository.saveAllAndFlush(rows);
+            return rows.stream()
+                    .collect(Collectors.toMap(row -> row.getBook().getId(), CartItem::getId));
+        }));
+        return changed;
+    }
+
+    private void writeQuantities(Long cartId, List<LiveCart.Item> items) {
+        Map<Long, Integer> quantities = items.stream()
+                .collect(Collectors.toMap(LiveCart.Item::id, LiveCart.Item::quantity));
+        List<CartItem> rows = cartItemRepository.findAllByShoppingCartId(cartId).stream()
+                .filter(row -> quantities.containsKey(row.getId()))
+                .toList();
+        rows.forEach(row -> row.setQuantity(quantities.get(row.getId())));
+        cartItemRepository.saveAllAndFlush(rows);
+    }
+
+    private CartItem newRow(Long cartId, Long bookId) {
+        CartItem row = new CartItem();
+        row.setShoppingCart(shoppingCartRepository.getReferenceById(cartId));
+        row.setBook(bookRepository.getReferenceById(bookId));
+        return row;
+    }
+
+    private LiveCart lockCart(AuthenticatedUser user) {
+        while (true) {
+            LiveCart cart = carts.get(user.cartId());
+            if (cart == null) {
+                LiveCart loaded = LiveCart.of(shoppingCartRepository.findByUserId(user.id())
+                        .orElseThrow(() -> new EntityNotFoundException(
+                                "Shopping cart not found for user with id " + user.id())));
+                cart = carts.putIfAbsent(user.cartId(), loaded);
+                if (cart == null) {
+                    cart = loaded;
+                }
+            }
+            if (cart.lock()) {
+                return cart;
+            }
+        }
+    }
+
+    private String appendJournal(Long cartId, List<LiveCart.Item> items) {
+        if (journal == null) {
+            return null;
+        }
+        String line = CartJournal.line(cartId, items);
+        journalLock.readLock().lock();
+        try {
+            journal.append(line);
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        return line;
+    }
+
+    private void retire(Long cartId, LiveCart cart) {
+        cart.retire();
+        carts.remove(cartId, cart);
+        dirtyIds.remove(cartId);
+    }
+
+    private void evictIdle() {
+        carts.forEach((cartId, cart) -> {
+            if (cart.isIdle(idleNanos) && cart.tryLock()) {
+                try {
+                    if (!cart.isDirty() && cart.isIdle(idleNanos)) {
+                        retire(cartId, cart);
+                    }
+                } finally {
+                    cart.unlock();
+                }
+            }
+        });
+    }
+
+    private void compactJournal() {
+        if (journal == null || !journal.hasAppends() || !journalLock.writeLock().tryLock()) {
+            return;
+        }
+        try {
+            journal.rewrite(carts.values().stream()
+                    .map(LiveCart::journalLine)
+                    .filter(Objects::nonNull)
+                    .toList());
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+
+    private record PendingFlush(Long cartId, LiveCart cart, List<LiveCart.Item> items,
+                                long generation, long persistedVersion) {
+    }
+}
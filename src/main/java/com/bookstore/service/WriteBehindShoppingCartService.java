@@ -0,0 +1,175 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.ShoppingCartResponseDto;
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.cart.CartDeltaResponseDto;
+import com.bookstore.dto.cart.CartItemRequestDto;
+import com.bookstore.dto.cart.CartItemResponseDto;
+import com.bookstore.dto.cart.CartItemUpdateRequestDto;
+import com.bookstore.dto.cart.CartOperationDto;
+import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.model.Book;
+import com.bookstore.model.ShoppingCart;
+import com.bookstore.model.User;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.ShoppingCartRepository;
+import com.bookstore.security.AuthenticatedUser;
+import com.bookstore.security.CurrentUserProvider;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "bookstore.cart.store", havingValue = "memory")
+@RequiredArgsConstructor
+public class WriteBehindShoppingCartService implements ShoppingCartService {
+    private final WriteBehindCartStore cartStore;
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final CurrentUserProvider currentUserProvider;
+
+    @Value("${bookstore.books.max-batch-size}")
+    private int maxBatchSize;
+
+    @Override
+    public ShoppingCartResponseDto getCartForCurrentUser() {
+        AuthenticatedUser user = currentUserProvider.get();
+        return toDto(user, cartStore.read(user));
+    }
+
+    @Override
+    public ShoppingCartResponseDto addItemToCart(CartItemRequestDto requestDto) {
+        AuthenticatedUser user = currentUserProvider.get();
+        return toDto(user, addItem(user, requestDto));
+    }
+
+    @Override
+    public CartDeltaResponseDto addItemToCartDelta(CartItemRequestDto requestDto) {
+        AuthenticatedUser user = currentUserProvider.get();
+        return toDelta(user, addItem(user, requestDto));
+    }
+
+    @Override
+    public ShoppingCartResponseDto updateCartItemQuantity(Long cartItemId,
+                                                          CartItemUpdateRequestDto requestDto) {
+        AuthenticatedUser user = currentUserProvider.get();
+        return toDto(user, cartStore.mutate(user,
+                draft -> draft.update(cartItemId, requestDto.getQuantity())));
+    }
+
+    @Override
+    public CartDeltaResponseDto updateCartItemQuantityDelta(Long cartItemId,
+                                                            CartItemUpdateRequestDto requestDto) {
+        AuthenticatedUser user = currentUserProvider.get();
+        return toDelta(user, cartStore.mutate(user,
+                draft -> draft.update(cartItemId, requestDto.getQuantity())));
+    }
+
+    @Override
+    public void removeCartItem(Long cartItemId) {
+        cartStore.mutate(currentUserProvider.get(), draft -> draft.remove(cartItemId));
+    }
+
+    @Override
+    public ShoppingCartResponseDto applyOperations(List<CartOperationDto> operations) {
+        operations.forEach(ShoppingCartServiceImpl::validate);
+        AuthenticatedUser user = currentUserProvider.get();
+        Map<Long, Book> books = bookRepository.findAllById(operations.stream()
+                        .filter(operation -> operation.type() == CartOperationDto.Type.ADD)
+                        .map(CartOperationDto::bookId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return toDto(user, cartStore.mutate(user, draft -> {
+            for (CartOperationDto operation : operations) {
+                switch (operation.type()) {
+                    case ADD -> {
+                        Book book = books.get(operation.bookId());
+                        if (book == null) {
+                            throw new EntityNotFoundException(
+                                    "Book not found with id: " + operation.bookId());
+                        }
+                        draft.add(book.getId(), operation.quantity());
+                    }
+                    case UPDATE -> draft.update(operation.cartItemId(), operation.quantity());
+                    case REMOVE -> draft.remove(operation.cartItemId());
+                    default -> throw new IllegalStateException(
+                            "Unexpected cart operation: " + operation.type());
+                }
+            }
+            return null;
+        }));
+    }
+
+    @Override
+    public void createCartForUser(User user) {
+        ShoppingCart cart = new ShoppingCart();
+        cart.setUser(user);
+        shoppingCartRepository.save(cart);
+    }
+
+    @Override
+    public void prepareCheckout(AuthenticatedUser user) {
+        cartStore.checkout(user);
+    }
+
+    private LiveCart.Snapshot addItem(AuthenticatedUser user, CartItemRequestDto requestDto) {
+        BookDto book = bookService.getBooksByIds(List.of(requestDto.bookId())).books().stream()
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Book not found with id: " + requestDto.bookId()));
+        return cartStore.mutate(user, draft -> draft.add(book.getId(), requestDto.quantity()));
+    }
+
+    private ShoppingCartResponseDto toDto(AuthenticatedUser user, LiveCart.Snapshot snapshot) {
+        Map<Long, BookDto> books = findBooks(snapshot.items());
+        return new ShoppingCartResponseDto(user.cartId(), user.id(), snapshot.items().stream()
+                .map(item -> toItemDto(item, books))
+                .toList());
+    }
+
+    private CartDeltaResponseDto toDelta(AuthenticatedUser user, LiveCart.Snapshot snapshot) {
+        Map<Long, BookDto> books = findBooks(snapshot.items());
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        long totalQuantity = 0;
+        for (LiveCart.Item item : snapshot.items()) {
+            totalQuantity += item.quantity();
+            BookDto book = books.get(item.bookId());
+            if (book != null && book.getPrice() != null) {
+                totalPrice = totalPrice.add(
+                        book.getPrice().multiply(BigDecimal.valueOf(item.quantity())));
+            }
+        }
+        return new CartDeltaResponseDto(user.cartId(), snapshot.version(),
+                snapshot.changed() == null
+                        ? List.of()
+                        : List.of(toItemDto(snapshot.changed(), books)),
+                snapshot.items().size(), totalQuantity, totalPrice);
+    }
+
+    private Map<Long, BookDto> findBooks(List<LiveCart.Item> items) {
+        List<Long> bookIds = items.stream()
+                .map(LiveCart.Item::bookId)
+                .toList();
+        Map<Long, BookDto> books = new HashMap<>();
+        for (int from = 0; from < bookIds.size(); from += maxBatchSize) {
+            bookService.getBooksByIds(bookIds.subList(from,
+                            Math.min(bookIds.size(), from + maxBatchSize))).books()
+                    .forEach(book -> books.put(book.getId(), book));
+        }
+        return books;
+    }
+
+    private static CartItemResponseDto toItemDto(LiveCart.Item item, Map<Long, BookDto> books) {
+        BookDto book = books.get(item.bookId());
+        return new CartItemResponseDto(item.id(), item.bookId(),
+                book == null ? null : book.getTitle(), item.quantity());
+    }
+}
@@ -14,25 +14,43 @@ import static com.bookstore.util.TestConstants.BOOK_TITLE;
 import static com.bookstore.util.TestUtil.createHobbitBook;
 import static com.bookstore.util.TestUtil.getUpdateBook;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.bookstore.dto.CategoryDto;
+import com.bookstore.dto.CreateCategoryDto;
+import com.bookstore.dto.book.BookBatchDto;
 import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookIdsRequestDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.repository.CategoryRepository;
+import com.bookstore.service.BookSuggestIndex;
+import com.bookstore.service.BookTextIndex;
+import com.bookstore.service.CategoryBitmapIndex;
+import com.bookstore.service.CategoryService;
+import com.bookstore.service.CategorySnapshot;
+import com.bookstore.service.IsbnIndex;
 import com.bookstore.util.TestUtil;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 import javax.sql.DataSource;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.AfterAll;
@@ -42,6 +60,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -61,10 +80,32 @@ class BookControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private BookTextIndex bookTextIndex;
+
+    @Autowired
+    private BookSuggestIndex bookSuggestIndex;
+
+    @Autowired
+    private IsbnIndex isbnIndex;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryBitmapIndex categoryBitmapIndex;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
     @BeforeAll
     static void beforeAll(
             @Autowired DataSource dataSource,
-            @Autowired WebApplicationContext webApplicationContext
+            @Autowired WebApplicationContext webApplicationContext,
+            @Autowired CategorySnapshot categorySnapshot
     ) throws SQLException {
         mockMvc = MockMvcBuilders
                 .webAppContextSetup(webApplicationContext)
@@ -77,6 +118,7 @@ class BookControllerTest {
                     connection,
                     new ClassPathResource("database/books/insert-three-books.sql"));
         }
+        categorySnapshot.rebuild();
     }
 
     @AfterAll
@@ -121,6 +163,118 @@ class BookControllerTest {
 
     }
 
+    @Test
+    @DisplayName("GET /books?after= - Keyset pages sorted by title")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void getAllBooks_ByCursor_ReturnsConsecutivePages() throws Exception {
+        MvcResult first = mockMvc.perform(get("/books")
+                        .param("after", "")
+                        .param("size", "2")
+                        .param("sort", "title,asc"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode firstPage = objectMapper.readTree(first.getResponse().getContentAsString());
+        BookDto[] firstBooks = objectMapper.readValue(
+                firstPage.get("content").toString(), BookDto[].class);
+
+        assertEquals(List.of(TestUtil.createBriefHistoryBook(), TestUtil.createCleanCodeBook()),
+                Arrays.asList(firstBooks));
+        assertNotNull(firstPage.get("nextCursor").textValue());
+        assertNull(firstPage.get("prevCursor").textValue());
+
+        MvcResult second = mockMvc.perform(get("/books")
+                        .param("after", firstPage.get("nextCursor").textValue())
+                        .param("size", "2")
+                        .param("sort", "title,asc"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode secondPage = objectMapper.readTree(second.getResponse().getContentAsString());
+        BookDto[] secondBooks = objectMapper.readValue(
+                secondPage.get("content").toString(), BookDto[].class);
+
+        assertEquals(List.of(createHobbitBook()), Arrays.asList(secondBooks));
+        assertNull(secondPage.get("nextCursor").textValue());
+        assertNotNull(secondPage.get("prevCursor").textValue());
+    }
+
+    @Test
+    @DisplayName("GET /books?after= - Unsupported sort property")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void getAllBooks_ByCursorWithUnsupportedSort_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/books")
+                        .param("after", "")
+                        .param("sort", "isbn,asc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /categories/{id}/books - Keyset page of category books")
+    @WithMockUser(username = "user", roles = "USER")
+    void getBooksByCategoryId_ReturnsCursorPage() throws Exception {
+        MvcResult result = mockMvc.perform(get("/categories/{id}/books", 1L)
+                        .param("size", "1")
+                        .param("sort", "price,desc"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+
+        assertEquals(1, page.get("size").intValue());
+        assertEquals(1L, page.get("content").get(0).get("id").longValue());
+        assertNull(page.get("content").get(0).get("categoryIds"));
+        assertNull(page.get("nextCursor").textValue());
+
+        mockMvc.perform(get("/categories/{id}/books", 1L)
+                        .param("sort", "author,asc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    @DisplayName("GET /categories/{id}/books - Includes books of subcategories")
+    void getBooksByCategoryId_IncludesSubcategories() throws Exception {
+        CategoryDto fantasy = categoryService.save(new CreateCategoryDto()
+                .setName("Fantasy").setParentId(1L));
+        categorySnapshot.rebuild();
+        CreateBookRequestDto createBookRequestDto = new CreateBookRequestDto()
+                .setTitle(BOOK_TITLE)
+                .setAuthor(BOOK_AUTHOR)
+                .setIsbn(BOOK_ISBN)
+                .setPrice(BOOK_PRICE)
+                .setCategoryIds(Set.of(fantasy.getId()));
+        mockMvc.perform(post("/books")
+                        .content(objectMapper.writeValueAsString(createBookRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(get("/categories/{id}/books", 1L))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+
+        assertEquals(2, page.get("size").intValue());
+        assertEquals(BOOK_TITLE, page.get("content").get(1).get("title").textValue());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    @DisplayName("POST /books - Category book count is written with the book")
+    void createBook_IncrementsCategoryBookCount() throws Exception {
+        categoryService.repairBookCounts();
+        CreateBookRequestDto createBookRequestDto = new CreateBookRequestDto()
+                .setTitle(BOOK_TITLE)
+                .setAuthor(BOOK_AUTHOR)
+                .setIsbn(BOOK_ISBN)
+                .setPrice(BOOK_PRICE)
+                .setCategoryIds(Set.of(1L));
+
+        mockMvc.perform(post("/books")
+                        .content(objectMapper.writeValueAsString(createBookRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        assertEquals(2, categoryRepository.findBookCounts(List.of(1L)).get(0).bookCount());
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = "ADMIN")
     @DisplayName("POST /books - \"Create a new book\"")
@@ -157,6 +311,126 @@ class BookControllerTest {
 
     }
 
+    @Test
+    @DisplayName("POST /books - Duplicate ISBN in another format")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void createBook_DuplicateIsbn_ReturnsConflict() throws Exception {
+        isbnIndex.rebuild();
+        CreateBookRequestDto createBookRequestDto = new CreateBookRequestDto()
+                .setTitle(BOOK_TITLE)
+                .setAuthor(BOOK_AUTHOR)
+                .setIsbn("9780547928227")
+                .setPrice(BOOK_PRICE)
+                .setCategoryIds(Set.of(1L));
+
+        mockMvc.perform(post("/books")
+                        .content(objectMapper.writeValueAsString(createBookRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("POST /books/bulk - Import NDJSON with per-row errors")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void importBooks_Ndjson_ImportsValidRowsAndReportsErrors() throws Exception {
+        isbnIndex.rebuild();
+        String body = """
+                {"title":"Dune","author":"Frank Herbert","isbn":"9780441013593","price":12.5,\
+                "categoryIds":[1]}
+                {"title":"Duplicate","author":"Someone","isbn":"978-0547928227","price":5,\
+                "categoryIds":[1]}
+                {"title":"Unknown category","author":"Someone","isbn":"9780000000001","price":5,\
+                "categoryIds":[999]}
+                {"title":"","author":"Someone","isbn":"9780000000002","price":5,"categoryIds":[1]}
+                not json
+                {"title":"Emma","author":"Jane Austen","isbn":"9780141439587","price":7,\
+                "categoryIds":[1,2]}
+                {"title":"Hobbit again","author":"Someone","isbn":"0-547-92822-X","price":5,\
+                "categoryIds":[1]}
+                {"title":"Dune again","author":"Someone","isbn":"0-441-01359-7","price":5,\
+                "categoryIds":[1]}
+                """;
+
+        MvcResult result = mockMvc.perform(post("/books/bulk")
+                        .content(body)
+                        .contentType("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode report = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(2, report.get("imported").asLong());
+        assertEquals(6, report.get("failed").asLong());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 7L, 8L),
+                TestUtil.toList(report.get("errors"), "row"));
+    }
+
+    @Test
+    @DisplayName("POST /books/bulk - Import CSV")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void importBooks_Csv_ImportsRows() throws Exception {
+        isbnIndex.rebuild();
+        String body = """
+                title,author,isbn,price,description,coverImage,categoryIds
+                "Dune, Deluxe",Frank Herbert,9780441013593,12.50,Sci-fi classic,,1;2
+                Broken price,Someone,9780000000003,abc,,,1
+                "Broken"quote,Someone,9780000000004,5,,,1
+                Emma,Jane Austen,9780141439587,7,,,1
+                "Unterminated,Someone,9780000000005,5,,,1
+                """;
+
+        MvcResult result = mockMvc.perform(post("/books/bulk")
+                        .content(body)
+                        .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode report = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(List.of(2L, 3L, 5L), TestUtil.toList(report.get("errors"), "row"));
+        assertEquals(2, report.get("imported").asLong());
+        assertEquals(3, report.get("failed").asLong());
+    }
+
+    @Test
+    @DisplayName("GET /books/export - Export catalog as gzipped NDJSON")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void exportBooks_Ndjson_StreamsGzippedBooks() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<BookDto> books = new ArrayList<>();
+        for (String line : body.strip().split("\n")) {
+            books.add(objectMapper.readValue(line, BookDto.class));
+        }
+        assertEquals(List.of(1L, 2L, 3L), books.stream().map(BookDto::getId).toList());
+        assertEquals(createHobbitBook(), books.get(0));
+        assertEquals(1, books.get(0).getCategories().size());
+    }
+
+    @Test
+    @DisplayName("GET /books/export?format=csv - Export catalog as CSV")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void exportBooks_Csv_StreamsRowsInImportFormat() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+
+        List<String> lines = result.getResponse().getContentAsString().lines().toList();
+        assertEquals(4, lines.size());
+        assertEquals("id,title,author,isbn,price,description,coverImage,categoryIds",
+                lines.get(0));
+        assertEquals("1,\"The Hobbit\",\"J.R.R. Tolkien\",978-0547928227,15.99,"
+                + "\"Fantasy novel\",,1", lines.get(1));
+    }
+
     @Test
     @DisplayName("GET /books/{id} - Get book by ID")
     @WithMockUser(username = "admin", roles = "ADMIN")
@@ -173,6 +447,66 @@ class BookControllerTest {
         assertEquals(actual, expected);
     }
 
+    @Test
+    @DisplayName("GET /books/{id} - Not modified until the book changes")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void getBookById_MatchingEtag_ReturnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/books/{id}", 3L))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        mockMvc.perform(get("/books/{id}", 3L)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/books/{id}", 3L)
+                        .content(objectMapper.writeValueAsString(getUpdateBook()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/books/{id}", 3L)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /books?ids= - Get several books in one request")
+    @WithMockUser(username = "user", roles = "USER")
+    void getBooksByIds_ReturnsFoundBooksAndMissingIds() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books").param("ids", "3,1," + BOOK_INVALID_ID))
+                .andExpect(status().isOk())
+                .andReturn();
+        BookBatchDto actual = objectMapper
+                .readValue(result.getResponse().getContentAsString(), BookBatchDto.class);
+
+        assertEquals(List.of(3L, 1L), actual.books().stream().map(BookDto::getId).toList());
+        assertEquals(createHobbitBook(), actual.books().get(1));
+        assertEquals(List.of(BOOK_INVALID_ID), actual.missingIds());
+
+        mockMvc.perform(post("/books/batch")
+                        .content(objectMapper.writeValueAsString(
+                                new BookIdsRequestDto().setIds(List.of())))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /books/isbn/{isbn} - Get book by ISBN-10")
+    @WithMockUser(username = "user", roles = "USER")
+    void getBookByIsbn_Isbn10_ReturnsBook() throws Exception {
+        isbnIndex.rebuild();
+
+        MvcResult result = mockMvc.perform(get("/books/isbn/{isbn}", "0-547-92822-X"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        BookDto actual = objectMapper
+                .readValue(result.getResponse().getContentAsString(), BookDto.class);
+        assertEquals(createHobbitBook(), actual);
+    }
+
     @Test
     @DisplayName("PUT /books/{id} - Update book")
     @WithMockUser(username = "admin", roles = "ADMIN")
@@ -222,12 +556,63 @@ class BookControllerTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
+        JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
         BookDto[] books = objectMapper.readValue(
-                result.getResponse().getContentAsString(),
+                page.get("content").toString(),
                 BookDto[].class
         );
         BookDto expected = createHobbitBook();
         assertEquals(expected, books[0]);
+        assertEquals(1, page.get("totalElements").asInt());
+    }
+
+    @Test
+    @DisplayName("GET /books/search?categories= - Boolean category expression")
+    @WithMockUser(username = "user", roles = "USER")
+    void searchBooks_ByCategoryExpression_ReturnsMatchingBooks() throws Exception {
+        categoryBitmapIndex.rebuild();
+
+        MvcResult result = mockMvc.perform(get("/books/search")
+                        .param("categories", "(1 OR 2) OR 3")
+                        .param("authors", "J.R.R. Tolkien", "Stephen Hawking"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+        BookDto[] books = objectMapper.readValue(page.get("content").toString(), BookDto[].class);
+        assertEquals(List.of(createHobbitBook(), TestUtil.createBriefHistoryBook()),
+                Arrays.asList(books));
+
+        MvcResult none = mockMvc.perform(get("/books/search")
+                        .param("categories", "1 AND 2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(0, objectMapper.readTree(none.getResponse().getContentAsString())
+                .get("totalElements").asInt());
+        mockMvc.perform(get("/books/search")
+                        .param("categories", "1 OR"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /books/search - Sorted slice without count")
+    @WithMockUser(username = "user", roles = "USER")
+    void searchBooks_SortedWithoutCount_ReturnsSlice() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/search")
+                        .param("authors", "J.R.R. Tolkien", "Stephen Hawking")
+                        .param("sort", "price,desc")
+                        .param("size", "1")
+                        .param("count", "false"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode slice = objectMapper.readTree(result.getResponse().getContentAsString());
+        BookDto[] books = objectMapper.readValue(
+                slice.get("content").toString(),
+                BookDto[].class
+        );
+        assertEquals(List.of(TestUtil.createBriefHistoryBook()), Arrays.asList(books));
+        assertFalse(slice.get("last").asBoolean());
+        assertNull(slice.get("totalElements"));
     }
 
     @Test
@@ -292,12 +677,78 @@ class BookControllerTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
+        JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+
+        assertEquals(0, page.get("content").size());
+        assertEquals(0, page.get("totalElements").asInt());
+    }
+
+    @Test
+    @DisplayName("GET /books/facets - Page with category, price and author counts")
+    @WithMockUser(username = "user", roles = "USER")
+    void searchBooksWithFacets_ByPriceRange_ReturnsPageAndCounts() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/facets")
+                        .param("prices", "10-20"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode facets = objectMapper.readTree(result.getResponse().getContentAsString());
+        BookDto[] books = objectMapper.readValue(
+                facets.get("books").get("content").toString(),
+                BookDto[].class
+        );
+        assertEquals(List.of(createHobbitBook(), TestUtil.createBriefHistoryBook()),
+                Arrays.asList(books));
+        assertEquals(List.of(1L, 2L),
+                TestUtil.toList(facets.get("categories"), "value").stream().sorted().toList());
+        assertEquals(1, facets.get("prices").size());
+        assertEquals("10-20", facets.get("prices").get(0).get("value").asText());
+        assertEquals(2, facets.get("prices").get(0).get("count").asLong());
+        assertEquals(2, facets.get("authors").size());
+    }
+
+    @Test
+    @DisplayName("GET /books/search - Malformed price range")
+    @WithMockUser(username = "user", roles = "USER")
+    void searchBooks_MalformedPriceRange_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/books/search")
+                        .param("prices", "cheap"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /books/search?q= - Full-text search tolerates typos")
+    @WithMockUser(username = "user", roles = "USER")
+    void searchBooks_ByTextWithTypo_ReturnsRankedBooks() throws Exception {
+        bookTextIndex.rebuild();
+
+        MvcResult result = mockMvc.perform(get("/books/search")
+                        .param("q", "hobit tolk"))
+                .andExpect(status().isOk())
+                .andReturn();
+
         BookDto[] books = objectMapper.readValue(
                 result.getResponse().getContentAsString(),
                 BookDto[].class
         );
+        assertEquals(List.of(createHobbitBook()), Arrays.asList(books));
+    }
+
+    @Test
+    @DisplayName("GET /books/suggest - Titles and authors by word prefix")
+    @WithMockUser(username = "user", roles = "USER")
+    void suggest_ByPrefix_ReturnsTitlesAndAuthors() throws Exception {
+        bookSuggestIndex.rebuild();
+
+        MvcResult result = mockMvc.perform(get("/books/suggest")
+                        .param("q", "CLE"))
+                .andExpect(status().isOk())
+                .andReturn();
 
-        assertEquals(0, books.length);
+        JsonNode suggestions = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(1, suggestions.size());
+        assertEquals("Clean Code", suggestions.get(0).get("text").asText());
+        assertEquals("TITLE", suggestions.get(0).get("type").asText());
     }
 
     @Test
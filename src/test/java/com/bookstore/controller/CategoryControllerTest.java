@@ -9,15 +9,19 @@ import static com.bookstore.util.TestUtil.createFictionCategory;
 import static com.bookstore.util.TestUtil.createHorrorCategory;
 import static com.bookstore.util.TestUtil.createUpdateCategory;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.bookstore.dto.CategoryDto;
 import com.bookstore.dto.CreateCategoryDto;
+import com.bookstore.service.CategorySnapshot;
 import com.bookstore.util.TestUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
@@ -27,11 +31,13 @@ import java.util.List;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -46,6 +52,9 @@ public class CategoryControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
     @BeforeAll
     static void beforeAll(
             @Autowired WebApplicationContext webApplicationContext,
@@ -65,6 +74,11 @@ public class CategoryControllerTest {
         }
     }
 
+    @BeforeEach
+    void setUp() {
+        categorySnapshot.rebuild();
+    }
+
     @AfterAll
     static void afterAll(@Autowired DataSource dataSource) {
         teardown(dataSource);
@@ -167,6 +181,98 @@ public class CategoryControllerTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    @DisplayName("GET /categories/{id} - Not modified for current ETag")
+    void getCategoryById_MatchingEtag_ReturnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/categories/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/categories/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    @DisplayName("GET /categories/{id}/path - Breadcrumb follows nested categories")
+    void nestedCategories_PathAndChildren() throws Exception {
+        CategoryDto fantasy = createCategory(new CreateCategoryDto()
+                .setName("Fantasy").setParentId(1L));
+        CategoryDto epic = createCategory(new CreateCategoryDto()
+                .setName("Epic").setParentId(fantasy.getId()));
+
+        MvcResult path = mockMvc.perform(get("/categories/{id}/path", epic.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult children = mockMvc.perform(get("/categories/{id}/children", 1L))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(List.of("Fiction", "Fantasy", "Epic"), Arrays.stream(objectMapper
+                        .readValue(path.getResponse().getContentAsString(), CategoryDto[].class))
+                .map(CategoryDto::getName)
+                .toList());
+        assertEquals(List.of(fantasy), List.of(objectMapper.readValue(
+                children.getResponse().getContentAsString(), CategoryDto[].class)));
+        mockMvc.perform(put("/categories/{id}", fantasy.getId())
+                        .content(objectMapper.writeValueAsString(new CreateCategoryDto()
+                                .setName("Fantasy").setParentId(epic.getId())))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+        mockMvc.perform(delete("/categories/{id}", 1L))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    @DisplayName("DELETE /categories/{id}/parent - Moves a nested category to the root")
+    void moveToRoot_NestedCategory_ClearsParent() throws Exception {
+        CategoryDto fantasy = createCategory(new CreateCategoryDto()
+                .setName("Fantasy").setParentId(1L));
+
+        MvcResult result = mockMvc.perform(delete("/categories/{id}/parent", fantasy.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+        categorySnapshot.rebuild();
+
+        assertNull(objectMapper.readValue(result.getResponse().getContentAsString(),
+                CategoryDto.class).getParentId());
+        assertTrue(categorySnapshot.findChildren(1L).isEmpty());
+        assertEquals(List.of("Fantasy"), categorySnapshot.findPath(fantasy.getId()).stream()
+                .map(CategoryDto::getName)
+                .toList());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    @DisplayName("GET /categories - ETag changes after an update")
+    void getAllCategories_AfterUpdate_ReturnsNewEtag() throws Exception {
+        String etag = mockMvc.perform(get("/categories"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/categories")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/categories/{id}", 1L)
+                        .content(objectMapper.writeValueAsString(createUpdateCategory()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        categorySnapshot.rebuild();
+
+        mockMvc.perform(get("/categories")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = "ADMIN")
     @DisplayName("PUT /categories/{id} - Update category")
@@ -194,6 +300,7 @@ public class CategoryControllerTest {
     void deleteCategory() throws Exception {
         mockMvc.perform(delete("/categories/{id}", 3L))
                 .andExpect(status().isNoContent());
+        categorySnapshot.rebuild();
 
         mockMvc.perform(get("/categories/{id}", 3L))
                 .andExpect(status().isNotFound());
@@ -262,4 +369,15 @@ public class CategoryControllerTest {
         mockMvc.perform(delete("/categories/{id}", CATEGORY_ID))
                 .andExpect((status().isForbidden()));
     }
+
+    private CategoryDto createCategory(CreateCategoryDto dto) throws Exception {
+        MvcResult result = mockMvc.perform(post("/categories")
+                        .content(objectMapper.writeValueAsString(dto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn();
+        categorySnapshot.rebuild();
+        return objectMapper.readValue(result.getResponse().getContentAsString(),
+                CategoryDto.class);
+    }
 }
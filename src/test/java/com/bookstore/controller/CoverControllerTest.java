@@ -0,0 +1,197 @@
+package com.bookstore.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.bookstore.dto.book.BookDto;
+import com.bookstore.service.CoverImageService;
+import com.bookstore.service.ThumbnailSize;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+import javax.sql.DataSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Transactional
+class CoverControllerTest {
+    private static final byte[] COVER =
+            "\u0089PNG cover bytes for the hobbit".getBytes(StandardCharsets.ISO_8859_1);
+
+    private static MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Value("${bookstore.covers.dir}")
+    private Path coversDirectory;
+
+    @BeforeAll
+    static void beforeAll(
+            @Autowired DataSource dataSource,
+            @Autowired WebApplicationContext webApplicationContext
+    ) {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        teardown(dataSource);
+        executeScript(dataSource, "database/books/insert-three-books.sql");
+    }
+
+    @AfterAll
+    static void afterAll(@Autowired DataSource dataSource) {
+        teardown(dataSource);
+    }
+
+    static void teardown(DataSource dataSource) {
+        executeScript(dataSource, "database/books/delete-books.sql");
+    }
+
+    @SneakyThrows
+    static void executeScript(DataSource dataSource, String script) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(script));
+        }
+    }
+
+    @Test
+    @DisplayName("PUT /books/{id}/cover then GET /covers/{name} - full, ranged and cached")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void uploadCover_ThenServe_SupportsRangesAndConditionalRequests() throws Exception {
+        String body = mockMvc.perform(put("/books/{id}/cover", 1L)
+                        .content(COVER)
+                        .contentType(MediaType.IMAGE_PNG))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String coverImage = objectMapper.readValue(body, BookDto.class).getCoverImage();
+        assertTrue(coverImage.matches("/covers/[0-9a-f]{64}\\.png"));
+
+        String etag = mockMvc.perform(get(coverImage))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_PNG_VALUE))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL,
+                        "max-age=31536000, public, immutable"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        byte[] partial = mockMvc.perform(get(coverImage)
+                        .header(HttpHeaders.RANGE, "bytes=1-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+                        "bytes 1-3/" + COVER.length))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        assertArrayEquals(Arrays.copyOfRange(COVER, 1, 4), partial);
+
+        mockMvc.perform(get(coverImage)
+                        .header(HttpHeaders.RANGE, "bytes=1000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+
+        mockMvc.perform(get(coverImage)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET /covers/{name}/{size} - Thumbnail generated in the background")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void uploadCover_ThenThumbnail_ServesResizedVariant() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(300, 150, BufferedImage.TYPE_INT_RGB), "png", png);
+        String body = mockMvc.perform(put("/books/{id}/cover", 2L)
+                        .content(png.toByteArray())
+                        .contentType(MediaType.IMAGE_PNG))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String coverImage = objectMapper.readValue(body, BookDto.class).getCoverImage();
+
+        MockHttpServletResponse thumbnail = mockMvc.perform(get(coverImage + "/small"))
+                .andReturn()
+                .getResponse();
+        for (int attempt = 0; attempt < 50 && thumbnail.getStatus() != 200; attempt++) {
+            Thread.sleep(100);
+            thumbnail = mockMvc.perform(get(coverImage + "/small"))
+                    .andReturn()
+                    .getResponse();
+        }
+
+        assertEquals(200, thumbnail.getStatus());
+        BufferedImage image = ImageIO.read(
+                new ByteArrayInputStream(thumbnail.getContentAsByteArray()));
+        assertEquals(ThumbnailSize.SMALL.getWidth(), image.getWidth());
+        assertEquals(ThumbnailSize.SMALL.getWidth() / 2, image.getHeight());
+    }
+
+    @Test
+    @DisplayName("GET /covers/{name}/{size} - Undecodable cover is tried once, then redirected")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void uploadCover_Undecodable_MarksThumbnailFailed() throws Exception {
+        String body = mockMvc.perform(put("/books/{id}/cover", 3L)
+                        .content(COVER)
+                        .contentType("image/webp"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String coverImage = objectMapper.readValue(body, BookDto.class).getCoverImage();
+        String name = coverImage.substring(CoverImageService.COVERS_PATH.length());
+        Path failed = coversDirectory.resolve("thumbnail-failed").resolve(name);
+        Path queued = coversDirectory.resolve("thumbnail-queue").resolve(name);
+
+        mockMvc.perform(get(coverImage + "/small"))
+                .andExpect(status().isTemporaryRedirect());
+        for (int attempt = 0; attempt < 50 && (Files.notExists(failed) || Files.exists(queued));
+                attempt++) {
+            Thread.sleep(100);
+        }
+
+        assertTrue(Files.exists(failed));
+        mockMvc.perform(get(coverImage + "/small"))
+                .andExpect(status().isTemporaryRedirect());
+        assertTrue(Files.notExists(queued));
+    }
+
+    @Test
+    @DisplayName("GET /covers/{name} - Unknown cover")
+    void getCover_UnknownName_ReturnsNotFound() throws Exception {
+        mockMvc.perform(get("/covers/{name}", "not-a-cover.png"))
+                .andExpect(status().isNotFound());
+    }
+}
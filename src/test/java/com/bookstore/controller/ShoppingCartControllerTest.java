@@ -0,0 +1,170 @@
+package com.bookstore.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.bookstore.dto.ShoppingCartResponseDto;
+import com.bookstore.dto.cart.CartDeltaResponseDto;
+import com.bookstore.dto.cart.CartItemRequestDto;
+import com.bookstore.dto.cart.CartItemResponseDto;
+import com.bookstore.dto.cart.CartItemUpdateRequestDto;
+import com.bookstore.dto.cart.CartOperationDto;
+import com.bookstore.dto.cart.CartOperationsRequestDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Transactional
+@WithMockUser(username = "admin@bookstore.com", roles = "USER")
+class ShoppingCartControllerTest {
+    private static MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    static void beforeAll(
+            @Autowired DataSource dataSource,
+            @Autowired WebApplicationContext webApplicationContext
+    ) {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        teardown(dataSource);
+        executeScript(dataSource, "database/books/insert-three-books.sql");
+        executeScript(dataSource, "database/carts/insert-admin-cart.sql");
+    }
+
+    @AfterAll
+    static void afterAll(@Autowired DataSource dataSource) {
+        teardown(dataSource);
+    }
+
+    static void teardown(DataSource dataSource) {
+        executeScript(dataSource, "database/carts/delete-carts.sql");
+        executeScript(dataSource, "database/books/delete-books.sql");
+    }
+
+    @SneakyThrows
+    static void executeScript(DataSource dataSource, String script) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(script));
+        }
+    }
+
+    @Test
+    @DisplayName("PATCH /cart - Applies operations in order and returns the final cart")
+    void applyOperations_ValidOperations_ReturnsFinalCart() throws Exception {
+        ShoppingCartResponseDto cart = read(patchCart(
+                add(1L, 2), add(2L, 1), add(1L, 1))
+                .andExpect(status().isOk()));
+        Map<Long, CartItemResponseDto> items = byBookId(cart);
+
+        assertEquals(2, items.size());
+        assertEquals(3, items.get(1L).quantity());
+        assertEquals(1, items.get(2L).quantity());
+
+        cart = read(patchCart(
+                new CartOperationDto(CartOperationDto.Type.UPDATE, null, items.get(2L).id(), 5),
+                new CartOperationDto(CartOperationDto.Type.REMOVE, null, items.get(1L).id(), null),
+                add(1L, 4))
+                .andExpect(status().isOk()));
+        items = byBookId(cart);
+
+        assertEquals(5, items.get(2L).quantity());
+        assertEquals(4, items.get(1L).quantity());
+    }
+
+    @Test
+    @DisplayName("PATCH /cart - Rejects incomplete operations and unknown books")
+    void applyOperations_InvalidOperations_Rejected() throws Exception {
+        patchCart(new CartOperationDto(CartOperationDto.Type.UPDATE, null, 1L, null))
+                .andExpect(status().isBadRequest());
+        patchCart(add(1L, 1), add(99L, 1))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("view=delta - Returns only the changed item with cart version and totals")
+    void deltaView_ReturnsChangedItemAndTotals() throws Exception {
+        CartDeltaResponseDto first = readDelta(mockMvc.perform(post("/cart")
+                        .param("view", "delta")
+                        .content(objectMapper.writeValueAsString(new CartItemRequestDto(1L, 2)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated()));
+
+        assertEquals(1, first.changedItems().size());
+        assertEquals(2, first.changedItems().get(0).quantity());
+        assertEquals(1, first.itemCount());
+        assertEquals(2, first.totalQuantity());
+        assertEquals(0, new BigDecimal("31.98").compareTo(first.totalPrice()));
+
+        CartItemUpdateRequestDto update = new CartItemUpdateRequestDto();
+        update.setQuantity(1);
+        CartDeltaResponseDto second = readDelta(mockMvc.perform(
+                        put("/cart/items/{id}", first.changedItems().get(0).id())
+                                .param("view", "delta")
+                                .content(objectMapper.writeValueAsString(update))
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()));
+
+        assertEquals(first.changedItems().get(0).id(), second.changedItems().get(0).id());
+        assertEquals(1, second.totalQuantity());
+        assertEquals(0, new BigDecimal("15.99").compareTo(second.totalPrice()));
+        assertTrue(second.version() > first.version());
+    }
+
+    private ResultActions patchCart(CartOperationDto... operations) throws Exception {
+        return mockMvc.perform(patch("/cart")
+                .content(objectMapper.writeValueAsString(
+                        new CartOperationsRequestDto(List.of(operations))))
+                .contentType(MediaType.APPLICATION_JSON));
+    }
+
+    private ShoppingCartResponseDto read(ResultActions result) throws Exception {
+        return objectMapper.readValue(result.andReturn().getResponse().getContentAsString(),
+                ShoppingCartResponseDto.class);
+    }
+
+    private CartDeltaResponseDto readDelta(ResultActions result) throws Exception {
+        return objectMapper.readValue(result.andReturn().getResponse().getContentAsString(),
+                CartDeltaResponseDto.class);
+    }
+
+    private static CartOperationDto add(Long bookId, int quantity) {
+        return new CartOperationDto(CartOperationDto.Type.ADD, bookId, null, quantity);
+    }
+
+    private static Map<Long, CartItemResponseDto> byBookId(ShoppingCartResponseDto cart) {
+        return cart.cartItems().stream()
+                .collect(Collectors.toMap(CartItemResponseDto::bookId, item -> item));
+    }
+}
@@ -0,0 +1,68 @@
+package com.bookstore.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.bookstore.model.Role;
+import com.bookstore.model.RoleName;
+import com.bookstore.model.User;
+import com.bookstore.repository.UserRepository;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentUserProviderTest {
+    private static final String EMAIL = "user@bookstore.com";
+
+    @Mock
+    private UserRepository userRepository;
+    @InjectMocks
+    private CurrentUserProvider currentUserProvider;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("get returns the principal populated by the JWT filter without a lookup")
+    void get_AuthenticatedUserPrincipal_NoLookup() {
+        AuthenticatedUser principal =
+                new AuthenticatedUser(7L, 7L, EMAIL, Set.of(RoleName.ROLE_USER.name()));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null,
+                        principal.authorities()));
+
+        assertEquals(principal, currentUserProvider.get());
+        assertEquals(EMAIL, SecurityContextHolder.getContext().getAuthentication().getName());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("get falls back to an email lookup for other principals")
+    void get_OtherPrincipal_LooksUpByEmail() {
+        Role role = new Role();
+        role.setName(RoleName.ROLE_ADMIN);
+        User user = new User();
+        user.setId(3L);
+        user.setEmail(EMAIL);
+        user.setRoles(Set.of(role));
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(EMAIL, null, List.of()));
+
+        assertEquals(new AuthenticatedUser(3L, 3L, EMAIL, Set.of("ROLE_ADMIN")),
+                currentUserProvider.get());
+    }
+}
@@ -0,0 +1,81 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bookstore.repository.book.BookIdRange;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookIdBitmapTest {
+
+    @Test
+    @DisplayName("and/or agree with sorted sets across array and bitmap containers")
+    void andOr_MatchSortedSets() {
+        Random random = new Random(42);
+        BookIdBitmap dense = new BookIdBitmap();
+        BookIdBitmap sparse = new BookIdBitmap();
+        TreeSet<Long> denseIds = new TreeSet<>();
+        TreeSet<Long> sparseIds = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(150_000);
+            dense.add(id);
+            denseIds.add(id);
+        }
+        for (int i = 0; i < 500; i++) {
+            long id = random.nextInt(150_000);
+            sparse.add(id);
+            sparseIds.add(id);
+        }
+
+        TreeSet<Long> union = new TreeSet<>(denseIds);
+        union.addAll(sparseIds);
+        TreeSet<Long> intersection = new TreeSet<>(denseIds);
+        intersection.retainAll(sparseIds);
+        assertEquals(new ArrayList<>(union), dense.or(sparse).toList());
+        assertEquals(new ArrayList<>(intersection), dense.and(sparse).toList());
+        assertEquals(new ArrayList<>(intersection), sparse.and(dense).toList());
+        assertEquals(new ArrayList<>(denseIds), dense.and(dense).toList());
+        assertEquals(denseIds.size(), dense.cardinality());
+    }
+
+    @Test
+    @DisplayName("remove shrinks containers and drops empty ones")
+    void remove_DropsIds() {
+        BookIdBitmap bitmap = new BookIdBitmap();
+        for (long id = 0; id < 5_000; id++) {
+            bitmap.add(id);
+        }
+        bitmap.add(1L << 20);
+        for (long id = 0; id < 4_999; id++) {
+            bitmap.remove(id);
+        }
+        bitmap.remove(1L << 20);
+
+        assertEquals(List.of(4_999L), bitmap.toList());
+        assertTrue(bitmap.contains(4_999L));
+        assertFalse(bitmap.contains(1L << 20));
+    }
+
+    @Test
+    @DisplayName("toRanges merges consecutive ids across containers and honours the limit")
+    void toRanges_MergesRuns() {
+        BookIdBitmap bitmap = new BookIdBitmap();
+        for (long id = 65_530; id < 65_540; id++) {
+            bitmap.add(id);
+        }
+        bitmap.add(3L);
+        bitmap.add(1L << 20);
+
+        assertEquals(Optional.of(List.of(new BookIdRange(3, 3), new BookIdRange(65_530, 65_539),
+                new BookIdRange(1L << 20, 1L << 20))), bitmap.toRanges(3));
+        assertTrue(bitmap.toRanges(2).isEmpty());
+        assertEquals(Optional.of(List.of()), new BookIdBitmap().toRanges(0));
+    }
+}
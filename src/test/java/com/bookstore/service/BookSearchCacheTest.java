@@ -0,0 +1,106 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.bookstore.config.CacheConfig;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookSearchParametersDto;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+class BookSearchCacheTest {
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+    private static final BookSearchCache.SearchIds IDS =
+            new BookSearchCache.SearchIds(List.of(1L), 1, false);
+
+    private BookSearchCache bookSearchCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchCache = new BookSearchCache(
+                new CaffeineCacheManager(CacheConfig.BOOK_SEARCH_CACHE));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("get reuses entries for equivalent parameters")
+    void get_EquivalentParameters_HitsCache() {
+        load(new BookSearchParametersDto(null, List.of("Tolkien", "Hawking"), null, null, null,
+                null));
+        load(new BookSearchParametersDto(List.of(), List.of("hawking", "TOLKIEN", "tolkien"),
+                null, List.of(), null, null));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("evict drops only entries matching the changed book")
+    void evict_MatchingBook_DropsMatchingEntries() {
+        BookSearchParametersDto tolkien =
+                new BookSearchParametersDto(null, List.of("J.R.R. Tolkien"), null, null, null,
+                        null);
+        BookSearchParametersDto hawking =
+                new BookSearchParametersDto(null, List.of("Stephen Hawking"), null, null, null,
+                        null);
+        BookSearchParametersDto all =
+                new BookSearchParametersDto(null, null, null, null, null, null);
+        load(tolkien);
+        load(hawking);
+        load(all);
+
+        bookSearchCache.evict(List.of(new Book()
+                .setTitle("The Hobbit")
+                .setAuthor("J.R.R. Tolkien")
+                .setIsbn("978-0547928227")));
+        load(tolkien);
+        load(hawking);
+        load(all);
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    @DisplayName("evict looks up title, isbn and unfiltered entries for the changed book")
+    void evict_IndexedFields_DropsOnlyReachableMatches() {
+        BookSearchParametersDto hobbit =
+                new BookSearchParametersDto(List.of("The Hobbit"), null, null, null, null, null);
+        load(hobbit);
+        BookSearchParametersDto dune =
+                new BookSearchParametersDto(List.of("Dune"), null, null, null, null, null);
+        load(dune);
+        BookSearchParametersDto isbn =
+                new BookSearchParametersDto(null, null, List.of("978-0547928227"), null, null,
+                        null);
+        load(isbn);
+        BookSearchParametersDto cheap =
+                new BookSearchParametersDto(null, null, null, null, List.of("0-10"), null);
+        load(cheap);
+
+        bookSearchCache.evict(List.of(new Book()
+                .setTitle("the hobbit")
+                .setAuthor("J.R.R. Tolkien")
+                .setIsbn("978-0547928227")
+                .setPrice(BigDecimal.valueOf(5))));
+        load(hobbit);
+        load(dune);
+        load(isbn);
+        load(cheap);
+
+        assertEquals(7, loads.get());
+    }
+
+    private void load(BookSearchParametersDto params) {
+        bookSearchCache.get(params, PAGE, true, () -> {
+            loads.incrementAndGet();
+            return IDS;
+        });
+    }
+}
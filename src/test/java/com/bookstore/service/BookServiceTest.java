@@ -13,26 +13,38 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.bookstore.config.CacheConfig;
+import com.bookstore.dto.book.BookBatchDto;
 import com.bookstore.dto.book.BookDto;
+import com.bookstore.dto.book.BookFacetsDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.dto.book.FacetCountDto;
+import com.bookstore.exception.DuplicateIsbnException;
 import com.bookstore.exception.EntityNotFoundException;
+import com.bookstore.exception.InvalidSearchParameterException;
 import com.bookstore.mapper.BookMapper;
 import com.bookstore.model.Book;
 import com.bookstore.model.Category;
+import com.bookstore.repository.BookFacetRow;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.BookSearchParametersDto;
 import com.bookstore.repository.BookSpecificationBuilder;
 import com.bookstore.repository.CategoryRepository;
+import com.bookstore.repository.book.PriceRange;
 import com.bookstore.util.TestConstants;
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -41,11 +53,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 public class BookServiceTest {
@@ -62,6 +80,24 @@ public class BookServiceTest {
     private CategoryService categoryService;
     @Mock
     private BookSpecificationBuilder specBuilder;
+    @Mock
+    private KeysetCursorCodec cursorCodec;
+    @Mock
+    private BookTextIndex bookTextIndex;
+    @Mock
+    private BookSearchCache bookSearchCache;
+    @Mock
+    private BookSuggestIndex bookSuggestIndex;
+    @Mock
+    private IsbnIndex isbnIndex;
+    @Mock
+    private CoverThumbnailPipeline thumbnailPipeline;
+    @Mock
+    private CategoryBitmapIndex categoryBitmapIndex;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache booksCache;
 
     private CreateBookRequestDto requestDto;
     private Book mappedBook;
@@ -112,26 +148,15 @@ public class BookServiceTest {
     @Test
     @DisplayName("getBookById_BookExists_ReturnsBookDto")
     public void getBookWithValidId_ShouldReturnBook() {
-        Book newBook = new Book();
-        newBook.setId(BOOK_VALID_ID);
-        newBook.setAuthor(BOOK_AUTHOR);
-        newBook.setTitle(BOOK_TITLE);
-        newBook.setIsbn(BOOK_ISBN);
-        newBook.setCoverImage(BOOK_COVER_IMAGE);
-        newBook.setPrice(BOOK_PRICE);
-        newBook.setDescription(BOOK_DESCRIPTION);
-        newBook.setDeleted(false);
-        newBook.setCategories(null);
-        when(bookRepository.findById(BOOK_VALID_ID)).thenReturn(Optional.of(newBook));
+        when(bookRepository.findDtosByIds(List.of(BOOK_VALID_ID))).thenReturn(List.of(mappedDto));
         BookDto actualBook = bookService.getBookById(BOOK_VALID_ID);
-        BookDto expectedBook = bookMapper.toDto(newBook);
-        assertEquals(expectedBook, actualBook);
+        assertEquals(mappedDto, actualBook);
     }
 
     @Test
     @DisplayName("getBookById_BookDoesNotExist_ThrowsException")
     public void getBookWithInvalidId_ShouldThrowException() {
-        when(bookRepository.findById(BOOK_INVALID_ID)).thenReturn(Optional.empty());
+        when(bookRepository.findDtosByIds(List.of(BOOK_INVALID_ID))).thenReturn(List.of());
 
         Exception exception = assertThrows(
                 EntityNotFoundException.class, () -> bookService.getBookById(BOOK_INVALID_ID));
@@ -140,6 +165,44 @@ public class BookServiceTest {
         assertEquals(expectedMessage, actualMessage);
     }
 
+    @Test
+    @DisplayName("getBooksByIds_MixedCacheHits_LoadsOnlyMissesInOneQuery")
+    void getBooksByIds_MixedCacheHits_LoadsOnlyMissesInOneQuery() {
+        ReflectionTestUtils.setField(bookService, "maxBatchSize", 10);
+        BookDto cachedDto = new BookDto();
+        cachedDto.setId(BOOK_VALID_ID);
+        when(cacheManager.getCache(CacheConfig.BOOKS_CACHE)).thenReturn(booksCache);
+        when(booksCache.get(BOOK_VALID_ID, BookDto.class)).thenReturn(cachedDto);
+        when(booksCache.get(100L, BookDto.class)).thenReturn(null);
+        when(booksCache.get(999L, BookDto.class)).thenReturn(null);
+        when(bookRepository.findDtosByIds(List.of(100L, 999L))).thenReturn(List.of(mappedDto));
+
+        BookBatchDto result = bookService.getBooksByIds(List.of(100L, BOOK_VALID_ID, 999L, 100L));
+
+        assertEquals(List.of(mappedDto, cachedDto), result.books());
+        assertEquals(List.of(999L), result.missingIds());
+        verify(booksCache).put(100L, mappedDto);
+    }
+
+    @Test
+    @DisplayName("getBooksByIds_TooManyIds_ThrowsException")
+    void getBooksByIds_TooManyIds_ThrowsException() {
+        ReflectionTestUtils.setField(bookService, "maxBatchSize", 1);
+
+        assertThrows(InvalidSearchParameterException.class,
+                () -> bookService.getBooksByIds(List.of(1L, 2L)));
+        verify(bookRepository, never()).findDtosByIds(any());
+    }
+
+    @Test
+    @DisplayName("getBookByIsbn_IndexedIsbn_ReturnsBookDto")
+    void getBookByIsbn_IndexedIsbn_ReturnsBookDto() {
+        when(isbnIndex.find(BOOK_ISBN)).thenReturn(BOOK_VALID_ID);
+        when(bookRepository.findDtosByIds(List.of(BOOK_VALID_ID))).thenReturn(List.of(mappedDto));
+
+        assertEquals(mappedDto, bookService.getBookByIsbn(BOOK_ISBN));
+    }
+
     @Test
     @DisplayName("createBook_ValidRequest_ReturnsBookDto")
     void createBook_ValidRequest_ReturnsBookDto() {
@@ -159,6 +222,20 @@ public class BookServiceTest {
         verify(bookMapper).toModel(requestDto);
         verify(bookRepository).save(mappedBook);
         verify(bookMapper).toDto(any(Book.class));
+        verify(bookTextIndex).index(mappedBook);
+        verify(bookSearchCache).evict(List.of(mappedBook));
+        verify(thumbnailPipeline).enqueue(BOOK_COVER_IMAGE);
+        verify(categoryService).adjustBookCounts(Map.of(1L, 1L));
+    }
+
+    @Test
+    @DisplayName("createBook_DuplicateIsbn_ThrowsException")
+    void createBook_DuplicateIsbn_ThrowsException() {
+        when(isbnIndex.isTaken(BOOK_ISBN, null)).thenReturn(true);
+
+        assertThrows(DuplicateIsbnException.class, () -> bookService.createBook(requestDto));
+
+        verify(bookRepository, never()).save(any());
     }
 
     @Test
@@ -166,7 +243,10 @@ public class BookServiceTest {
     void createBook_InvalidCategoryIds_ThrowsException() {
         requestDto.setCategoryIds(Set.of(999L));
         BookServiceImpl spyBookService = Mockito.spy(
-                new BookServiceImpl(bookRepository, bookMapper, specBuilder, categoryService)
+                new BookServiceImpl(bookRepository, bookMapper, specBuilder, categoryService,
+                        cursorCodec, bookTextIndex, bookSearchCache,
+                        bookSuggestIndex, isbnIndex, thumbnailPipeline, categoryBitmapIndex,
+                        cacheManager)
         );
         when(bookMapper.toModel(requestDto)).thenReturn(mappedBook);
 
@@ -218,10 +298,10 @@ public class BookServiceTest {
     @DisplayName("findAll_WithResults_ReturnsPageOfBookDto")
     void findAll_WithResults_ReturnsPageOfBookDto() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Book> bookPage = new PageImpl<>(List.of(mappedBook));
+        Page<Long> idPage = new PageImpl<>(List.of(100L), pageable, 1);
 
-        when(bookRepository.findAll(pageable)).thenReturn(bookPage);
-        when(bookMapper.toDto(mappedBook)).thenReturn(mappedDto);
+        when(bookRepository.findPageOfIds(pageable)).thenReturn(idPage);
+        when(bookRepository.findDtosByIds(List.of(100L))).thenReturn(List.of(mappedDto));
 
         Page<BookDto> result = bookService.findAll(pageable);
 
@@ -233,9 +313,7 @@ public class BookServiceTest {
     @DisplayName("findAll_NoResults_ReturnsEmptyPage")
     void findAll_NoResults_ReturnsEmptyPage() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Book> bookPage = Page.empty();
-
-        when(bookRepository.findAll(pageable)).thenReturn(bookPage);
+        when(bookRepository.findPageOfIds(pageable)).thenReturn(Page.empty(pageable));
 
         Page<BookDto> result = bookService.findAll(pageable);
 
@@ -246,10 +324,13 @@ public class BookServiceTest {
     @DisplayName("deleteBook_ExistingId_DeletesBook")
     void deleteBook_ExistingId_DeletesBook() {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(mappedBook));
+        when(bookRepository.findCategoryIdsById(1L)).thenReturn(List.of(1L));
 
         bookService.deleteBook(1L);
 
         verify(bookRepository).delete(mappedBook);
+        verify(bookTextIndex).delete(1L);
+        verify(categoryService).adjustBookCounts(Map.of(1L, -1L));
     }
 
     @Test
@@ -269,10 +350,13 @@ public class BookServiceTest {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(mappedBook));
         when(bookRepository.save(any(Book.class))).thenReturn(mappedBook);
         when(bookMapper.toDto(mappedBook)).thenReturn(mappedDto);
+        when(bookRepository.findCategoryIdsById(1L)).thenReturn(List.of(1L, 2L));
 
         BookDto result = bookService.updateBook(1L, requestDto);
 
         assertEquals(mappedDto, result);
+        verify(categoryService).adjustBookCounts(Map.of(2L, -1L));
+        verify(categoryBitmapIndex).update(1L, List.of(1L, 2L), Set.of(1L));
     }
 
     @Test
@@ -283,23 +367,118 @@ public class BookServiceTest {
     }
 
     @Test
-    @DisplayName("searchBooks_WithParams_ReturnsResults")
-    void searchBooks_WithParams_ReturnsResults() {
+    @DisplayName("updateCoverImage_ValidId_SavesAndQueuesThumbnails")
+    void updateCoverImage_ValidId_SavesAndQueuesThumbnails() {
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(mappedBook));
+        when(bookMapper.toDto(mappedBook)).thenReturn(mappedDto);
+
+        assertEquals(mappedDto, bookService.updateCoverImage(1L, "/covers/new.png"));
+        assertEquals("/covers/new.png", mappedBook.getCoverImage());
+        verify(bookRepository).save(mappedBook);
+        verify(thumbnailPipeline).enqueue("/covers/new.png");
+    }
+
+    @Test
+    @DisplayName("searchBooks_WithParams_ReturnsPage")
+    void searchBooks_WithParams_ReturnsPage() {
         BookSearchParametersDto params =
                 new BookSearchParametersDto(
-                        List.of("Test"), null, null);
+                        List.of("Test"), null, null, null, null, null);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
 
-        when(bookRepository.findAll(
-                Mockito.<Specification<Book>>any())).thenReturn(List.of(mappedBook));
-        when(bookMapper.toDto(mappedBook)).thenReturn(mappedDto);
+        when(cursorCodec.pageSize(10)).thenReturn(10);
+        when(cursorCodec.toKeysetSort(pageable.getSort(), BookServiceImpl.KEYSET_PROPERTIES))
+                .thenReturn(Sort.by("id"));
+        when(bookRepository.findIds(Mockito.<Specification<Book>>any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(100L), pageable, 1));
+        when(bookRepository.findDtosByIds(List.of(100L))).thenReturn(List.of(mappedDto));
+
+        when(bookSearchCache.get(eq(params), any(Pageable.class), eq(true), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+
+        Slice<BookDto> result = bookService.searchBooks(params, pageable, true);
+
+        assertEquals(List.of(mappedDto), result.getContent());
+        assertEquals(1, ((Page<BookDto>) result).getTotalElements());
+    }
 
-        List<Book> result = bookService.searchBooks(params);
-        List<BookDto> resultDto = result
-                .stream()
-                .map(bookMapper::toDto)
-                .toList();
+    @Test
+    @DisplayName("searchBooks_WithoutCount_ReturnsSliceWithoutCountQuery")
+    void searchBooks_WithoutCount_ReturnsSliceWithoutCountQuery() {
+        BookSearchParametersDto params =
+                new BookSearchParametersDto(
+                        null, List.of(BOOK_AUTHOR), null, null, null, null);
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("id"));
+
+        when(cursorCodec.pageSize(1)).thenReturn(1);
+        when(cursorCodec.toKeysetSort(pageable.getSort(), BookServiceImpl.KEYSET_PROPERTIES))
+                .thenReturn(Sort.by("id"));
+        when(bookRepository.findIdSlice(Mockito.<Specification<Book>>any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(100L), pageable, true));
+        when(bookRepository.findDtosByIds(List.of(100L))).thenReturn(List.of(mappedDto));
 
-        assertEquals(1, resultDto.size());
-        assertEquals(mappedDto, resultDto.get(0));
+        when(bookSearchCache.get(eq(params), any(Pageable.class), eq(false), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+
+        Slice<BookDto> result = bookService.searchBooks(params, pageable, false);
+
+        assertEquals(List.of(mappedDto), result.getContent());
+        assertTrue(result.hasNext());
+        verify(bookRepository, never()).findIds(
+                Mockito.<Specification<Book>>any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("searchBooks_ByText_ReturnsBooksInRankOrder")
+    void searchBooks_ByText_ReturnsBooksInRankOrder() {
+        when(cursorCodec.pageSize(10)).thenReturn(10);
+        BookDto cachedDto = new BookDto();
+        cachedDto.setId(BOOK_VALID_ID);
+        when(bookTextIndex.search("hobbit", 10)).thenReturn(List.of(100L, BOOK_VALID_ID));
+        when(cacheManager.getCache(CacheConfig.BOOKS_CACHE)).thenReturn(booksCache);
+        when(booksCache.get(BOOK_VALID_ID, BookDto.class)).thenReturn(cachedDto);
+        when(booksCache.get(100L, BookDto.class)).thenReturn(null);
+        when(bookRepository.findDtosByIds(List.of(100L))).thenReturn(List.of(mappedDto));
+
+        List<BookDto> result = bookService.searchBooks("hobbit", 10);
+
+        assertEquals(List.of(mappedDto, cachedDto), result);
+        verify(booksCache).put(100L, mappedDto);
+    }
+
+    @Test
+    @DisplayName("searchFacets_ReturnsPageAndAggregatedFacets")
+    void searchFacets_ReturnsPageAndAggregatedFacets() {
+        ReflectionTestUtils.setField(bookService, "priceBucketBounds",
+                List.of(BigDecimal.TEN, BigDecimal.valueOf(20)));
+        BookSearchParametersDto params =
+                new BookSearchParametersDto(null, null, null, null, null, null);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+
+        when(cursorCodec.pageSize(10)).thenReturn(10);
+        when(cursorCodec.toKeysetSort(pageable.getSort(), BookServiceImpl.KEYSET_PROPERTIES))
+                .thenReturn(Sort.by("id"));
+        when(bookSearchCache.get(eq(params), any(Pageable.class), eq(true), any()))
+                .thenReturn(new BookSearchCache.SearchIds(List.of(100L), 1, false));
+        when(bookRepository.findDtosByIds(List.of(100L))).thenReturn(List.of(mappedDto));
+        when(bookRepository.findFacets(Mockito.<Specification<Book>>any(), eq(List.of(
+                new PriceRange(null, BigDecimal.TEN),
+                new PriceRange(BigDecimal.TEN, BigDecimal.valueOf(20)),
+                new PriceRange(BigDecimal.valueOf(20), null))), eq(20)))
+                .thenReturn(List.of(
+                        new BookFacetRow(BookFacetRow.Type.CATEGORY, "2", "Science", 1L),
+                        new BookFacetRow(BookFacetRow.Type.PRICE, "10-20", "10-20", 1L),
+                        new BookFacetRow(BookFacetRow.Type.CATEGORY, "1", "Fiction", 2L),
+                        new BookFacetRow(BookFacetRow.Type.AUTHOR, BOOK_AUTHOR, BOOK_AUTHOR,
+                                1L)));
+
+        BookFacetsDto result = bookService.searchFacets(params, pageable);
+
+        assertEquals(List.of(mappedDto), result.books().getContent());
+        assertEquals(List.of("1", "2"), result.categories().stream()
+                .map(FacetCountDto::value)
+                .toList());
+        assertEquals(List.of(new FacetCountDto(BOOK_AUTHOR, BOOK_AUTHOR, 1)), result.authors());
+        assertEquals(List.of(new FacetCountDto("10-20", "10-20", 1)), result.prices());
     }
 }
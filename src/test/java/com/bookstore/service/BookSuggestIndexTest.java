@@ -0,0 +1,117 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.bookstore.dto.book.BookSuggestionDto;
+import com.bookstore.model.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookSalesRow;
+import com.bookstore.repository.BookTextRow;
+import com.bookstore.repository.OrderItemRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookSuggestIndexTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private OrderItemRepository orderItemRepository;
+    @InjectMocks
+    private BookSuggestIndex bookSuggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.streamTextRows()).thenReturn(Stream.of(
+                new BookTextRow(1L, "The Hobbit", "J.R.R. Tolkien", null),
+                new BookTextRow(2L, "The Silmarillion", "J.R.R. Tolkien", null),
+                new BookTextRow(3L, "The Hitchhiker's Guide to the Galaxy", "Douglas Adams",
+                        null)));
+        when(orderItemRepository.findBookSales()).thenReturn(List.of(
+                new BookSalesRow(3L, 5L),
+                new BookSalesRow(1L, 2L)));
+        bookSuggestIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("suggest matches word prefixes and ranks by sales")
+    void suggest_WordPrefix_RanksBySales() {
+        assertEquals(List.of(
+                        new BookSuggestionDto("The Hitchhiker's Guide to the Galaxy",
+                                BookSuggestionDto.Type.TITLE),
+                        new BookSuggestionDto("The Hobbit", BookSuggestionDto.Type.TITLE)),
+                bookSuggestIndex.suggest("h", 10));
+    }
+
+    @Test
+    @DisplayName("suggest groups an author's books")
+    void suggest_Author_ReturnsSingleEntry() {
+        assertEquals(List.of(new BookSuggestionDto("J.R.R. Tolkien",
+                        BookSuggestionDto.Type.AUTHOR)),
+                bookSuggestIndex.suggest("tolk", 10));
+    }
+
+    @Test
+    @DisplayName("recordSale reorders suggestions")
+    void recordSale_ChangesRanking() {
+        bookSuggestIndex.recordSale(1L, 10);
+
+        assertEquals("The Hobbit", bookSuggestIndex.suggest("h", 1).get(0).text());
+    }
+
+    @Test
+    @DisplayName("index and delete keep suggestions in sync")
+    void indexAndDelete_UpdateSuggestions() {
+        bookSuggestIndex.index(List.of(new Book()
+                .setId(4L)
+                .setTitle("Émile")
+                .setAuthor("Jean-Jacques Rousseau")));
+        assertEquals("Émile", bookSuggestIndex.suggest("emi", 10).get(0).text());
+
+        bookSuggestIndex.delete(4L);
+        assertTrue(bookSuggestIndex.suggest("emi", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("index of an existing book replaces its old title")
+    void index_RenamedBook_ReplacesOldTitle() {
+        bookSuggestIndex.index(List.of(new Book()
+                .setId(1L)
+                .setTitle("Unfinished Tales")
+                .setAuthor("J.R.R. Tolkien")));
+
+        assertEquals(List.of(new BookSuggestionDto("The Hitchhiker's Guide to the Galaxy",
+                        BookSuggestionDto.Type.TITLE)),
+                bookSuggestIndex.suggest("h", 10));
+        assertEquals("Unfinished Tales", bookSuggestIndex.suggest("tales", 10).get(0).text());
+    }
+
+    @Test
+    @DisplayName("suggest ranks best sellers across prefixes with very many keys")
+    void suggest_ShortPrefixOverManyKeys_FindsLateBestSeller() {
+        List<Book> atlases = new ArrayList<>();
+        for (long id = 100; id < 10_600; id++) {
+            atlases.add(new Book().setId(id).setTitle("Atlas " + id).setAuthor("Mapmaker " + id));
+        }
+        bookSuggestIndex.index(atlases);
+        bookSuggestIndex.recordSale(9_999L, 10);
+
+        assertEquals("Atlas 9999", bookSuggestIndex.suggest("a", 1).get(0).text());
+
+        bookSuggestIndex.recordSale(9_998L, 30);
+        assertEquals(List.of("Atlas 9998", "Atlas 9999"), bookSuggestIndex.suggest("a", 2)
+                .stream()
+                .map(BookSuggestionDto::text)
+                .toList());
+    }
+}
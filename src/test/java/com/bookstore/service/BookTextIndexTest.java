@@ -0,0 +1,84 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookTextRow;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookTextIndexTest {
+    @Mock
+    private BookRepository bookRepository;
+    @InjectMocks
+    private BookTextIndex bookTextIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.streamTextRows()).thenReturn(Stream.of(
+                new BookTextRow(1L, "The Hobbit", "J.R.R. Tolkien", "Fantasy novel"),
+                new BookTextRow(2L, "A Brief History of Time", "Stephen Hawking",
+                        "Cosmology and science"),
+                new BookTextRow(3L, "Clean Code", "Robert C. Martin",
+                        "A handbook of agile software craftsmanship"),
+                new BookTextRow(4L, "Tolkien: A Biography", "Humphrey Carpenter",
+                        "The life of the author of The Hobbit")));
+        bookTextIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("search ranks title matches above description matches")
+    void search_CaseInsensitive_RanksTitleFirst() {
+        assertEquals(List.of(1L, 4L), bookTextIndex.search("HOBBIT", 10));
+    }
+
+    @Test
+    @DisplayName("search matches term prefixes")
+    void search_Prefix_ReturnsMatches() {
+        assertEquals(List.of(3L), bookTextIndex.search("craftsm", 10));
+    }
+
+    @Test
+    @DisplayName("search tolerates a typo")
+    void search_Typo_ReturnsFuzzyMatch() {
+        assertEquals(List.of(2L), bookTextIndex.search("hawkng", 10));
+    }
+
+    @Test
+    @DisplayName("search tolerates two typos in a long token until the term is removed")
+    void search_LongTokenTypos_FollowsIndexedTerms() {
+        assertEquals(List.of(3L), bookTextIndex.search("craftsmnaship", 10));
+
+        bookTextIndex.index(3L, "Clean Code", "Robert C. Martin", null);
+        assertTrue(bookTextIndex.search("craftsmnaship", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("search honours the limit")
+    void search_Limit_TruncatesResults() {
+        assertEquals(List.of(1L), bookTextIndex.search("hobbit", 1));
+    }
+
+    @Test
+    @DisplayName("index and delete update results incrementally")
+    void indexAndDelete_UpdateResults() {
+        bookTextIndex.index(5L, "Refactoring", "Martin Fowler", null);
+        assertEquals(List.of(5L), bookTextIndex.search("refactoring", 10));
+
+        bookTextIndex.index(3L, "Clean Architecture", "Robert C. Martin", null);
+        assertTrue(bookTextIndex.search("craftsmanship", 10).isEmpty());
+
+        bookTextIndex.delete(5L);
+        assertEquals(List.of(3L), bookTextIndex.search("fowler martin", 10));
+    }
+}
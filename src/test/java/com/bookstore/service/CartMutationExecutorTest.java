@@ -0,0 +1,84 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class CartMutationExecutorTest {
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CartMutationExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new CartMutationExecutor(transactionTemplate, meterRegistry, MAX_ATTEMPTS);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation
+                .<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("execute retries a conflicting mutation in a new transaction")
+    void execute_Conflict_RetriesUntilSuccess() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException("CartItem", 1L);
+            }
+            return "cart";
+        });
+
+        assertEquals("cart", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1, meterRegistry.counter("bookstore.cart.mutation.retries").count());
+    }
+
+    @Test
+    @DisplayName("execute gives up after the configured number of attempts")
+    void execute_PersistentConflict_Throws() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DuplicateKeyException.class, () -> executor.run(() -> {
+            attempts.incrementAndGet();
+            throw new DuplicateKeyException("uk_cart_items_cart_book");
+        }));
+
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+        assertEquals(1, meterRegistry.counter("bookstore.cart.mutation.conflicts").count());
+    }
+
+    @Test
+    @DisplayName("execute does not retry other integrity violations")
+    void execute_IntegrityViolation_ThrowsAtOnce() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DataIntegrityViolationException.class, () -> executor.run(() -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("fk_cart_items_book");
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, meterRegistry.counter("bookstore.cart.mutation.retries").count());
+    }
+}
@@ -0,0 +1,88 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import com.bookstore.exception.InvalidSearchParameterException;
+import com.bookstore.repository.BookCategoryLinkRow;
+import com.bookstore.repository.BookJdbcRepository;
+import com.bookstore.repository.book.BookIdRange;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryBitmapIndexTest {
+    @Mock
+    private BookJdbcRepository bookJdbcRepository;
+    @InjectMocks
+    private CategoryBitmapIndex categoryBitmapIndex;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            Consumer<BookCategoryLinkRow> consumer = invocation.getArgument(0);
+            consumer.accept(new BookCategoryLinkRow(1L, 1L));
+            consumer.accept(new BookCategoryLinkRow(2L, 1L));
+            consumer.accept(new BookCategoryLinkRow(2L, 2L));
+            consumer.accept(new BookCategoryLinkRow(3L, 2L));
+            consumer.accept(new BookCategoryLinkRow(4L, 3L));
+            return null;
+        }).when(bookJdbcRepository).forEachCategoryLink(any());
+        categoryBitmapIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("evaluate combines categories with AND binding tighter than OR")
+    void evaluate_BooleanExpressions() {
+        assertEquals(List.of(2L), categoryBitmapIndex.evaluate("1 AND 2"));
+        assertEquals(List.of(1L, 2L, 3L), categoryBitmapIndex.evaluate("1 or 2"));
+        assertEquals(List.of(2L, 4L), categoryBitmapIndex.evaluate("1 AND 2 OR 3"));
+        assertEquals(List.of(2L), categoryBitmapIndex.evaluate("1 AND (2 OR 3)"));
+        assertEquals(List.of(), categoryBitmapIndex.evaluate("1 AND 99"));
+    }
+
+    @Test
+    @DisplayName("evaluateRanges merges consecutive ids and gives up above the range limit")
+    void evaluateRanges_OverLimit_ReturnsEmpty() {
+        assertEquals(Optional.of(List.of(new BookIdRange(1, 3))),
+                categoryBitmapIndex.evaluateRanges("1 OR 2", 1));
+        assertEquals(Optional.of(List.of(new BookIdRange(1, 2), new BookIdRange(4, 4))),
+                categoryBitmapIndex.evaluateRanges("1 OR 3", 2));
+        assertTrue(categoryBitmapIndex.evaluateRanges("1 OR 3", 1).isEmpty());
+        assertEquals("((1|2)&3)", categoryBitmapIndex.parse("(1 OR 2) AND 3", String::valueOf,
+                (left, right) -> "(" + left + "&" + right + ")",
+                (left, right) -> "(" + left + "|" + right + ")"));
+    }
+
+    @Test
+    @DisplayName("update and removeCategory keep memberships in sync")
+    void update_MovesBookBetweenCategories() {
+        categoryBitmapIndex.update(1L, List.of(1L), Set.of(3L));
+        categoryBitmapIndex.removeCategory(2L);
+
+        assertEquals(List.of(2L), categoryBitmapIndex.evaluate("1"));
+        assertEquals(List.of(1L, 4L), categoryBitmapIndex.evaluate("3"));
+        assertEquals(List.of(), categoryBitmapIndex.evaluate("2"));
+    }
+
+    @Test
+    @DisplayName("evaluate rejects malformed expressions")
+    void evaluate_Malformed_Throws() {
+        for (String expression : List.of("", "1 AND", "(1 OR 2", "1 2", "1 XOR 2", ")")) {
+            assertThrows(InvalidSearchParameterException.class,
+                    () -> categoryBitmapIndex.evaluate(expression));
+        }
+    }
+}
@@ -6,22 +6,35 @@ import static com.bookstore.util.TestConstants.CATEGORY_ID;
 import static com.bookstore.util.TestConstants.CATEGORY_NAME;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.bookstore.config.CacheConfig;
 import com.bookstore.dto.CategoryDto;
 import com.bookstore.dto.CreateCategoryDto;
+import com.bookstore.dto.CursorPageDto;
 import com.bookstore.dto.book.BookDtoWithoutCategoryIds;
+import com.bookstore.exception.CategoryHierarchyException;
 import com.bookstore.exception.EntityNotFoundException;
-import com.bookstore.mapper.BookMapper;
 import com.bookstore.mapper.CategoryMapper;
-import com.bookstore.model.Book;
 import com.bookstore.model.Category;
+import com.bookstore.repository.BookKeysetRow;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CategoryClosureRepository;
 import com.bookstore.repository.CategoryRepository;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -29,9 +42,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 @ExtendWith(MockitoExtension.class)
 class CategoryServiceTest {
+    private static final Long PARENT_ID = 7L;
+
     @Mock
     private CategoryRepository categoryRepository;
     @Mock
@@ -39,7 +61,17 @@ class CategoryServiceTest {
     @Mock
     private BookRepository bookRepository;
     @Mock
-    private BookMapper bookMapper;
+    private CacheManager cacheManager;
+    @Mock
+    private Cache booksCache;
+    @Mock
+    private KeysetCursorCodec cursorCodec;
+    @Mock
+    private CategorySnapshot categorySnapshot;
+    @Mock
+    private CategoryBitmapIndex categoryBitmapIndex;
+    @Mock
+    private CategoryClosureRepository categoryClosureRepository;
 
     @InjectMocks
     private CategoryServiceImpl categoryService;
@@ -68,20 +100,18 @@ class CategoryServiceTest {
     @Test
     @DisplayName("findAll should return list of categories")
     void findAll_ReturnsList() {
-        when(categoryRepository.findAll()).thenReturn(List.of(category));
-        when(categoryMapper.toDto(category)).thenReturn(categoryDto);
+        when(categorySnapshot.findAll()).thenReturn(List.of(categoryDto));
 
         List<CategoryDto> result = categoryService.findAll();
 
         assertThat(result).hasSize(1).contains(categoryDto);
-        verify(categoryRepository).findAll();
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     @DisplayName("getById should return category when exists")
     void getCategoryByValidId_ReturnsCategory() {
-        when(categoryRepository.findById(CATEGORY_ID)).thenReturn(Optional.of(category));
-        when(categoryMapper.toDto(category)).thenReturn(categoryDto);
+        when(categorySnapshot.find(CATEGORY_ID)).thenReturn(Optional.of(categoryDto));
 
         CategoryDto result = categoryService.getById(CATEGORY_ID);
 
@@ -91,7 +121,7 @@ class CategoryServiceTest {
     @Test
     @DisplayName("getById should throw exception when not found")
     void getById_WhenNotFound_Throws() {
-        when(categoryRepository.findById(CATEGORY_ID)).thenReturn(Optional.empty());
+        when(categorySnapshot.find(CATEGORY_ID)).thenReturn(Optional.empty());
         Exception exception = assertThrows(
                 EntityNotFoundException.class, () -> categoryService.getById(CATEGORY_ID));
         String expectedMessage = "Category with id " + CATEGORY_ID + " not found";
@@ -103,13 +133,14 @@ class CategoryServiceTest {
     @Test
     @DisplayName("getEntityById should return category when exists")
     void getEntityByValidId_ReturnsEntity() {
-        when(categoryRepository
-                .findById(CATEGORY_ID))
+        when(categorySnapshot
+                .findEntity(CATEGORY_ID))
                 .thenReturn(Optional.of(category));
 
         Category result = categoryService.getEntityById(CATEGORY_ID);
 
         assertThat(result).isEqualTo(category);
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
@@ -128,6 +159,83 @@ class CategoryServiceTest {
         CategoryDto result = categoryService.save(createCategoryDto);
 
         assertThat(result).isEqualTo(categoryDto);
+        verify(categoryClosureRepository).insertSelf(CATEGORY_ID);
+        verify(categoryClosureRepository, never()).attachSubtree(any(), any());
+        verify(categorySnapshot).rebuild();
+    }
+
+    @Test
+    @DisplayName("save with a parent should link the category under the parent's ancestors")
+    void save_WithParent_AttachesToParent() {
+        createCategoryDto.setParentId(PARENT_ID);
+        category.setParentId(PARENT_ID);
+        when(categorySnapshot.find(PARENT_ID)).thenReturn(Optional.of(categoryDto));
+        when(categoryMapper.toCategory(createCategoryDto)).thenReturn(category);
+        when(categoryRepository.save(category)).thenReturn(category);
+        when(categoryMapper.toDto(category)).thenReturn(categoryDto);
+
+        categoryService.save(createCategoryDto);
+
+        verify(categoryClosureRepository).insertSelf(CATEGORY_ID);
+        verify(categoryClosureRepository).attachSubtree(CATEGORY_ID, PARENT_ID);
+    }
+
+    @Test
+    @DisplayName("save should throw exception when the parent doesn't exist")
+    void save_WithUnknownParent_Throws() {
+        createCategoryDto.setParentId(PARENT_ID);
+        when(categorySnapshot.find(PARENT_ID)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> categoryService.save(createCategoryDto));
+
+        verifyNoInteractions(categoryRepository, categoryClosureRepository);
+    }
+
+    @Test
+    @DisplayName("update with a new parent should relink the whole subtree")
+    void update_NewParent_MovesSubtree() {
+        createCategoryDto.setParentId(PARENT_ID);
+        when(categoryRepository.findById(CATEGORY_ID)).thenReturn(Optional.of(category));
+        when(categorySnapshot.findSubtreeIds(CATEGORY_ID)).thenReturn(List.of(CATEGORY_ID, 5L));
+        when(categorySnapshot.find(PARENT_ID)).thenReturn(Optional.of(categoryDto));
+
+        categoryService.update(CATEGORY_ID, createCategoryDto);
+
+        verify(categoryClosureRepository).detachSubtree(List.of(CATEGORY_ID, 5L));
+        verify(categoryClosureRepository).attachSubtree(CATEGORY_ID, PARENT_ID);
+        verify(categorySnapshot).rebuild();
+    }
+
+    @Test
+    @DisplayName("moveToRoot should detach the subtree and clear the parent")
+    void moveToRoot_NestedCategory_DetachesSubtree() {
+        category.setParentId(PARENT_ID);
+        when(categoryRepository.findById(CATEGORY_ID)).thenReturn(Optional.of(category));
+        when(categorySnapshot.findSubtreeIds(CATEGORY_ID)).thenReturn(List.of(CATEGORY_ID, 5L));
+
+        categoryService.moveToRoot(CATEGORY_ID);
+
+        assertNull(category.getParentId());
+        verify(categoryClosureRepository).detachSubtree(List.of(CATEGORY_ID, 5L));
+        verify(categoryRepository).save(category);
+        verify(categorySnapshot).rebuild();
+    }
+
+    @Test
+    @DisplayName("update should reject moving a category under its own subcategory")
+    void update_ParentInOwnSubtree_Throws() {
+        createCategoryDto.setParentId(PARENT_ID);
+        when(categoryRepository.findById(CATEGORY_ID)).thenReturn(Optional.of(category));
+        when(categorySnapshot.findSubtreeIds(CATEGORY_ID))
+                .thenReturn(List.of(CATEGORY_ID, PARENT_ID));
+        when(categorySnapshot.find(PARENT_ID)).thenReturn(Optional.of(categoryDto));
+
+        assertThrows(CategoryHierarchyException.class,
+                () -> categoryService.update(CATEGORY_ID, createCategoryDto));
+
+        verifyNoInteractions(categoryClosureRepository);
+        verify(categoryRepository, never()).save(any());
     }
 
     @Test
@@ -142,6 +250,22 @@ class CategoryServiceTest {
         assertEquals(expectedMessage, exception.getMessage());
     }
 
+    @Test
+    @DisplayName("update should evict cached books of the category")
+    void update_WhenExists_EvictsCachedBooks() {
+        when(categoryRepository.findById(CATEGORY_ID)).thenReturn(Optional.of(category));
+        when(categoryMapper.toDto(category)).thenReturn(categoryDto);
+        when(bookRepository.findIdsByCategoryId(CATEGORY_ID)).thenReturn(List.of(1L, 2L));
+        when(cacheManager.getCache(CacheConfig.BOOKS_CACHE)).thenReturn(booksCache);
+
+        CategoryDto result = categoryService.update(CATEGORY_ID, createCategoryDto);
+
+        assertThat(result).isEqualTo(categoryDto);
+        verify(categorySnapshot).rebuild();
+        verify(booksCache).evict(1L);
+        verify(booksCache).evict(2L);
+    }
+
     @Test
     @DisplayName("deleteById should delete category when exists")
     void deleteById_WhenExists_Deletes() {
@@ -152,6 +276,22 @@ class CategoryServiceTest {
         categoryService.deleteById(CATEGORY_ID);
 
         verify(categoryRepository).delete(category);
+        verify(categoryClosureRepository).deleteLeaf(CATEGORY_ID);
+        verify(categorySnapshot).rebuild();
+        verify(categoryBitmapIndex).removeCategory(CATEGORY_ID);
+    }
+
+    @Test
+    @DisplayName("deleteById should reject categories that still have subcategories")
+    void deleteById_WithChildren_Throws() {
+        when(categoryRepository.findById(CATEGORY_ID)).thenReturn(Optional.of(category));
+        when(categorySnapshot.findChildren(CATEGORY_ID)).thenReturn(List.of(categoryDto));
+
+        assertThrows(CategoryHierarchyException.class,
+                () -> categoryService.deleteById(CATEGORY_ID));
+
+        verify(categoryRepository, never()).delete(any());
+        verifyNoInteractions(categoryClosureRepository);
     }
 
     @Test
@@ -171,23 +311,68 @@ class CategoryServiceTest {
     }
 
     @Test
-    @DisplayName("getBooksByCategoryId should return list of books")
-    void getBooksByCategoryId_ReturnsList() {
-        Book book = new Book();
-        book.setId(BOOK_VALID_ID);
+    @DisplayName("adjustBookCounts should update each delta group once and refresh the counts")
+    void adjustBookCounts_GroupsByDelta() {
+        categoryService.adjustBookCounts(Map.of(1L, 1L, 2L, -1L));
 
-        BookDtoWithoutCategoryIds dtoWithoutCategories = new BookDtoWithoutCategoryIds();
-        dtoWithoutCategories.setId(BOOK_VALID_ID);
+        verify(categoryRepository).adjustBookCounts(List.of(1L), 1L);
+        verify(categoryRepository).adjustBookCounts(List.of(2L), -1L);
+        verify(categorySnapshot).refreshBookCounts(Set.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("repairBookCounts should skip the recount when no count drifted")
+    void repairBookCounts_NoDrift_SkipsRecount() {
+        when(categoryRepository.countDriftedBookCounts()).thenReturn(0L);
 
-        when(bookRepository
-                .findAllByCategories_Id(CATEGORY_ID))
-                .thenReturn(List.of(book));
-        when(bookMapper
-                .toDtoWithoutCategories(book))
-                .thenReturn(dtoWithoutCategories);
+        assertEquals(0, categoryService.repairBookCounts());
 
-        List<BookDtoWithoutCategoryIds> result = categoryService.getBooksByCategoryId(CATEGORY_ID);
+        verify(categoryRepository, never()).recountBooks();
+        verifyNoInteractions(categorySnapshot);
+    }
 
-        assertThat(result).hasSize(1).contains(dtoWithoutCategories);
+    @Test
+    @DisplayName("repairBookCounts should recount drifted categories and refresh the snapshot")
+    void repairBookCounts_Drift_Recounts() {
+        when(categoryRepository.countDriftedBookCounts()).thenReturn(2L);
+        when(categoryRepository.recountBooks()).thenReturn(2);
+
+        assertEquals(2, categoryService.repairBookCounts());
+
+        verify(categorySnapshot).rebuild();
+    }
+
+    @Test
+    @DisplayName("getBooksByCategoryId should return a page of books")
+    void getBooksByCategoryId_ReturnsPage() {
+        BookKeysetRow row = mock(BookKeysetRow.class);
+        when(row.getId()).thenReturn(BOOK_VALID_ID);
+        BookDtoWithoutCategoryIds dtoWithoutCategories = new BookDtoWithoutCategoryIds();
+        dtoWithoutCategories.setId(BOOK_VALID_ID);
+        Sort sort = Sort.by("id");
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        Window<BookKeysetRow> window = Window.from(List.of(row), ScrollPosition::offset);
+
+        when(cursorCodec.toKeysetSort(eq(sort), anyMap())).thenReturn(sort);
+        when(cursorCodec.decode(eq(""), eq(sort), anyMap())).thenReturn(position);
+        when(cursorCodec.pageSize(10)).thenReturn(10);
+        when(categorySnapshot.findSubtreeIds(CATEGORY_ID)).thenReturn(List.of(CATEGORY_ID, 5L));
+        when(bookRepository.findDistinctByCategoriesIdIn(
+                List.of(CATEGORY_ID, 5L), position, sort, Limit.of(10)))
+                .thenReturn(window);
+        when(cursorCodec.<BookKeysetRow, BookDtoWithoutCategoryIds>toPage(
+                eq(window), eq(position), any()))
+                .thenAnswer(invocation -> new CursorPageDto<>(
+                        invocation.<Function<List<BookKeysetRow>,
+                                List<BookDtoWithoutCategoryIds>>>getArgument(2)
+                                .apply(window.getContent()),
+                        null, null, 1));
+        when(bookRepository.findSummariesByIds(List.of(BOOK_VALID_ID)))
+                .thenReturn(List.of(dtoWithoutCategories));
+
+        CursorPageDto<BookDtoWithoutCategoryIds> result =
+                categoryService.getBooksByCategoryId(CATEGORY_ID, "", 10, sort);
+
+        assertEquals(new CursorPageDto<>(List.of(dtoWithoutCategories), null, null, 1), result);
     }
 }
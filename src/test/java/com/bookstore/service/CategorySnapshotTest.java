@@ -0,0 +1,131 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bookstore.dto.CategoryDto;
+import com.bookstore.mapper.CategoryMapper;
+import com.bookstore.model.Category;
+import com.bookstore.model.CategoryClosure;
+import com.bookstore.repository.CategoryClosureRepository;
+import com.bookstore.repository.CategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+@ExtendWith(MockitoExtension.class)
+class CategorySnapshotTest {
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private CategoryClosureRepository categoryClosureRepository;
+    @Mock
+    private CategoryMapper categoryMapper;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @InjectMocks
+    private CategorySnapshot categorySnapshot;
+
+    private Category fiction;
+    private CategoryDto fictionDto;
+
+    @BeforeEach
+    void setUp() {
+        fiction = new Category().setId(1L).setName("Fiction").setVersion(0L);
+        fictionDto = new CategoryDto().setId(1L).setName("Fiction");
+    }
+
+    @Test
+    @DisplayName("Reads are served from one snapshot built on first use")
+    void reads_BuildSnapshotOnce() throws Exception {
+        stubFiction();
+        assertEquals(List.of(fictionDto), categorySnapshot.findAll());
+        assertEquals(objectMapper.writeValueAsString(List.of(fictionDto)),
+                new String(categorySnapshot.findAllJson()));
+        assertEquals(Optional.of(fictionDto), categorySnapshot.find(1L));
+        assertEquals(Optional.of(0L), categorySnapshot.findVersion(1L));
+        assertTrue(categorySnapshot.find(2L).isEmpty());
+
+        verify(categoryRepository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    @DisplayName("findEntity returns a detached copy of the cached category")
+    void findEntity_ReturnsCopy() {
+        stubFiction();
+        Category entity = categorySnapshot.findEntity(1L).orElseThrow();
+
+        assertNotSame(fiction, entity);
+        assertEquals(1L, entity.getId());
+        assertEquals("Fiction", entity.getName());
+        assertNotSame(entity, categorySnapshot.findEntity(1L).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("rebuild swaps in a snapshot with a new list version")
+    void rebuild_ChangesListVersion() {
+        stubFiction();
+        long version = categorySnapshot.getVersion();
+        fiction.setVersion(1L);
+
+        categorySnapshot.rebuild();
+
+        assertNotEquals(version, categorySnapshot.getVersion());
+        assertEquals(Optional.of(1L), categorySnapshot.findVersion(1L));
+    }
+
+    @Test
+    @DisplayName("rebuild caches children, subtrees and breadcrumbs from the closure table")
+    void rebuild_CachesTree() {
+        Category fantasy = new Category().setId(2L).setName("Fantasy").setParentId(1L)
+                .setVersion(0L);
+        Category epic = new Category().setId(3L).setName("Epic").setParentId(2L).setVersion(0L);
+        when(categoryRepository.findAll(any(Sort.class)))
+                .thenReturn(List.of(fiction, fantasy, epic));
+        when(categoryMapper.toDto(any(Category.class))).thenAnswer(invocation -> {
+            Category category = invocation.getArgument(0);
+            return new CategoryDto().setId(category.getId()).setName(category.getName())
+                    .setParentId(category.getParentId());
+        });
+        when(categoryClosureRepository.findAll()).thenReturn(List.of(
+                link(1L, 1L, 0), link(2L, 2L, 0), link(3L, 3L, 0),
+                link(1L, 2L, 1), link(2L, 3L, 1), link(1L, 3L, 2)));
+
+        assertEquals(List.of("Fantasy"), names(categorySnapshot.findChildren(1L)));
+        assertEquals(List.of("Fiction", "Fantasy", "Epic"), names(categorySnapshot.findPath(3L)));
+        assertEquals(List.of(1L, 2L, 3L), categorySnapshot.findSubtreeIds(1L).stream()
+                .sorted().toList());
+        assertEquals(List.of(3L), categorySnapshot.findSubtreeIds(3L));
+        assertTrue(categorySnapshot.findSubtreeIds(4L).isEmpty());
+        assertEquals(2L, categorySnapshot.findEntity(3L).orElseThrow().getParentId());
+    }
+
+    private void stubFiction() {
+        when(categoryRepository.findAll(any(Sort.class))).thenReturn(List.of(fiction));
+        when(categoryMapper.toDto(any(Category.class))).thenReturn(fictionDto);
+    }
+
+    private static CategoryClosure link(Long ancestorId, Long descendantId, int depth) {
+        return new CategoryClosure().setAncestorId(ancestorId).setDescendantId(descendantId)
+                .setDepth(depth);
+    }
+
+    private static List<String> names(List<CategoryDto> categories) {
+        return categories.stream().map(CategoryDto::getName).toList();
+    }
+}
@@ -0,0 +1,67 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class CoverThumbnailCacheTest {
+    @TempDir
+    private Path directory;
+    private SimpleMeterRegistry meterRegistry;
+    private CoverThumbnailCache thumbnailCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        thumbnailCache = new CoverThumbnailCache(
+                new CoverStorage(directory, DataSize.ofMegabytes(1)),
+                DataSize.ofBytes(10), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("put evicts the least recently used thumbnails over the size cap")
+    void put_OverCapacity_EvictsLeastRecentlyUsed() throws IOException {
+        Path first = write("a.png", ThumbnailSize.SMALL, 4);
+        Path second = write("b.png", ThumbnailSize.SMALL, 4);
+        assertEquals(first, thumbnailCache.get("a.png", ThumbnailSize.SMALL));
+
+        write("c.png", ThumbnailSize.SMALL, 4);
+
+        assertFalse(Files.exists(second));
+        assertNull(thumbnailCache.get("b.png", ThumbnailSize.SMALL));
+        assertEquals(first, thumbnailCache.get("a.png", ThumbnailSize.SMALL));
+        assertEquals(8.0, meterRegistry.get("bookstore.thumbnails.cache.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("load restores thumbnails already on disk")
+    void load_ExistingFiles_RestoresEntries() throws IOException {
+        write("a.png", ThumbnailSize.LARGE, 4);
+
+        CoverThumbnailCache restarted = new CoverThumbnailCache(
+                new CoverStorage(directory, DataSize.ofMegabytes(1)),
+                DataSize.ofBytes(10), new SimpleMeterRegistry());
+        restarted.load();
+
+        assertNotNull(restarted.get("a.png", ThumbnailSize.LARGE));
+    }
+
+    private Path write(String name, ThumbnailSize size, int bytes) throws IOException {
+        Path path = thumbnailCache.path(name, size);
+        Files.createDirectories(path.getParent());
+        Files.write(path, new byte[bytes]);
+        thumbnailCache.put(path, bytes);
+        return path;
+    }
+}
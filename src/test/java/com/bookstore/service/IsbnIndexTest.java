@@ -0,0 +1,103 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import com.bookstore.repository.BookIsbnRow;
+import com.bookstore.repository.BookJdbcRepository;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class IsbnIndexTest {
+    @Mock
+    private BookJdbcRepository bookJdbcRepository;
+    @InjectMocks
+    private IsbnIndex isbnIndex;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            Consumer<BookIsbnRow> consumer = invocation.getArgument(0);
+            consumer.accept(new BookIsbnRow(1L, "978-0547928227", false));
+            consumer.accept(new BookIsbnRow(2L, "978-0553380163", true));
+            consumer.accept(new BookIsbnRow(3L, "not an isbn", false));
+            return null;
+        }).when(bookJdbcRepository).forEachIsbn(any());
+        isbnIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("find normalizes hyphens and ISBN-10")
+    void find_EquivalentForms_ReturnSameBook() {
+        assertEquals(1L, isbnIndex.find("9780547928227"));
+        assertEquals(1L, isbnIndex.find("0-547-92822-X"));
+        assertNull(isbnIndex.find("0547928220"));
+    }
+
+    @Test
+    @DisplayName("deleted books keep their ISBN taken but are not found")
+    void find_DeletedBook_IsTakenButNotFound() {
+        assertNull(isbnIndex.find("9780553380163"));
+        assertTrue(isbnIndex.isTaken("9780553380163", null));
+    }
+
+    @Test
+    @DisplayName("isTaken ignores the book's own ISBN")
+    void isTaken_SameBook_ReturnsFalse() {
+        assertFalse(isbnIndex.isTaken("978-0547928227", 1L));
+        assertTrue(isbnIndex.isTaken("978-0547928227", 5L));
+    }
+
+    @Test
+    @DisplayName("put, markDeleted and remove survive resizing")
+    void mutations_ManyBooks_KeepIndexConsistent() {
+        for (long id = 10; id < 5_000; id++) {
+            isbnIndex.put(isbn(id), id);
+        }
+        for (long id = 10; id < 5_000; id += 2) {
+            isbnIndex.remove(isbn(id), id);
+        }
+        isbnIndex.markDeleted("978-0547928227", 1L);
+
+        for (long id = 10; id < 5_000; id++) {
+            Long expected = id % 2 == 0 ? null : id;
+            assertEquals(expected, isbnIndex.find(isbn(id)));
+        }
+        assertNull(isbnIndex.find("978-0547928227"));
+        assertTrue(isbnIndex.isTaken("978-0547928227", null));
+    }
+
+    @Test
+    @DisplayName("ISBNs that do not normalize are looked up in the database")
+    void find_UnnormalizedIsbn_FallsBackToDatabase() {
+        when(bookJdbcRepository.findByIsbn("1234567890"))
+                .thenReturn(Optional.of(new BookIsbnRow(4L, "1234567890", false)));
+        when(bookJdbcRepository.findByIsbn("9780547928228")).thenReturn(Optional.empty());
+
+        assertEquals(4L, isbnIndex.find("1234567890"));
+        assertTrue(isbnIndex.isTaken("1234567890", 5L));
+        assertFalse(isbnIndex.isTaken("9780547928228", null));
+    }
+
+    private static String isbn(long id) {
+        String digits = String.format("979%09d", id);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            sum += (i % 2 == 0 ? 1 : 3) * (digits.charAt(i) - '0');
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+}
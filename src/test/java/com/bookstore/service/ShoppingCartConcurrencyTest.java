@@ -0,0 +1,104 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.bookstore.dto.ShoppingCartResponseDto;
+import com.bookstore.dto.cart.CartItemRequestDto;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.sql.DataSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+@SpringBootTest
+class ShoppingCartConcurrencyTest {
+    private static final String ADMIN_EMAIL = "admin@bookstore.com";
+    private static final long BOOK_ID = 1L;
+    private static final int THREADS = 4;
+    private static final int ADDS_PER_THREAD = 10;
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
+    @BeforeAll
+    static void beforeAll(@Autowired DataSource dataSource) {
+        teardown(dataSource);
+        executeScript(dataSource, "database/books/insert-three-books.sql");
+        executeScript(dataSource, "database/carts/insert-admin-cart.sql");
+    }
+
+    @AfterAll
+    static void afterAll(@Autowired DataSource dataSource) {
+        teardown(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    static void teardown(DataSource dataSource) {
+        executeScript(dataSource, "database/carts/delete-carts.sql");
+        executeScript(dataSource, "database/books/delete-books.sql");
+    }
+
+    @SneakyThrows
+    static void executeScript(DataSource dataSource, String script) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(script));
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent adds of the same book keep every increment in one cart item")
+    void addItemToCart_ConcurrentAdds_KeepsEveryIncrement() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> adds = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                adds.add(executor.submit(() -> {
+                    authenticate();
+                    try {
+                        for (int j = 0; j < ADDS_PER_THREAD; j++) {
+                            shoppingCartService.addItemToCart(new CartItemRequestDto(BOOK_ID, 1));
+                        }
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> add : adds) {
+                add.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        authenticate();
+        ShoppingCartResponseDto cart = shoppingCartService.getCartForCurrentUser();
+
+        assertEquals(1, cart.cartItems().size());
+        assertEquals(THREADS * ADDS_PER_THREAD, cart.cartItems().get(0).quantity());
+    }
+
+    private static void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(ADMIN_EMAIL, null, List.of()));
+    }
+}
@@ -0,0 +1,156 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bookstore.dto.ShoppingCartResponseDto;
+import com.bookstore.dto.book.CreateBookRequestDto;
+import com.bookstore.dto.cart.CartDeltaResponseDto;
+import com.bookstore.dto.cart.CartItemRequestDto;
+import com.bookstore.dto.cart.CartItemResponseDto;
+import com.bookstore.dto.cart.CartItemUpdateRequestDto;
+import com.bookstore.dto.order.OrderItemResponseDto;
+import com.bookstore.dto.order.OrderRequestDto;
+import com.bookstore.model.CartItem;
+import com.bookstore.repository.CartItemRepository;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = "bookstore.cart.store=memory")
+class WriteBehindCartStoreTest {
+    private static final String ADMIN_EMAIL = "admin@bookstore.com";
+    private static final long CART_ID = 1L;
+    private static Path journal;
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+    @Autowired
+    private WriteBehindCartStore cartStore;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private BookService bookService;
+
+    @DynamicPropertySource
+    @SneakyThrows
+    static void journalPath(DynamicPropertyRegistry registry) {
+        journal = Files.createTempDirectory("cart-journal").resolve("carts.journal");
+        registry.add("bookstore.cart.journal.path", journal::toString);
+    }
+
+    @BeforeAll
+    static void beforeAll(@Autowired DataSource dataSource) {
+        teardown(dataSource);
+        executeScript(dataSource, "database/books/insert-three-books.sql");
+        executeScript(dataSource, "database/carts/insert-admin-cart.sql");
+    }
+
+    @AfterAll
+    static void afterAll(@Autowired DataSource dataSource) {
+        teardown(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(ADMIN_EMAIL, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    static void teardown(DataSource dataSource) {
+        executeScript(dataSource, "database/orders/delete-orders.sql");
+        executeScript(dataSource, "database/carts/delete-carts.sql");
+        executeScript(dataSource, "database/books/delete-books.sql");
+    }
+
+    @SneakyThrows
+    static void executeScript(DataSource dataSource, String script) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(script));
+        }
+    }
+
+    @Test
+    @DisplayName("New lines get database ids at once, quantities are journaled and flushed later")
+    void mutations_FlushedLaterAndOnCheckout() throws Exception {
+        shoppingCartService.addItemToCart(new CartItemRequestDto(1L, 2));
+        ShoppingCartResponseDto cart =
+                shoppingCartService.addItemToCart(new CartItemRequestDto(1L, 1));
+
+        List<CartItem> rows = cartItemRepository.findAllByShoppingCartId(CART_ID);
+        assertEquals(1, rows.size());
+        assertEquals(rows.get(0).getId(), cart.cartItems().get(0).id());
+        assertEquals(2, rows.get(0).getQuantity());
+        assertTrue(Files.readString(journal).contains(CART_ID + " 1:3 ;"));
+
+        cartStore.flush();
+
+        assertEquals(3, cartItemRepository.findAllByShoppingCartId(CART_ID).get(0).getQuantity());
+        assertTrue(Files.readString(journal).isEmpty());
+
+        CartItemUpdateRequestDto update = new CartItemUpdateRequestDto();
+        update.setQuantity(5);
+        cart = shoppingCartService.updateCartItemQuantity(rows.get(0).getId(), update);
+        assertEquals(5, cart.cartItems().get(0).quantity());
+        Long removedId = shoppingCartService.addItemToCart(new CartItemRequestDto(2L, 1))
+                .cartItems().get(1).id();
+        shoppingCartService.removeCartItem(removedId);
+        assertTrue(cartItemRepository.findById(removedId).isEmpty());
+        cart = shoppingCartService.addItemToCart(new CartItemRequestDto(3L, 1));
+        assertEquals(2, cart.cartItems().size());
+
+        OrderRequestDto order = new OrderRequestDto();
+        order.setShippingAddress("Kyiv");
+        Map<Long, Integer> ordered = orderService.placeOrder(order).getOrderItems().stream()
+                .collect(Collectors.toMap(OrderItemResponseDto::getBookId,
+                        OrderItemResponseDto::getQuantity));
+
+        assertEquals(Map.of(1L, 5, 3L, 1), ordered);
+        assertTrue(cartItemRepository.findAllByShoppingCartId(CART_ID).isEmpty());
+        assertTrue(Files.readString(journal).endsWith(CART_ID + " ;\n"));
+        assertTrue(shoppingCartService.getCartForCurrentUser().cartItems().isEmpty());
+        List<CartItemResponseDto> items = shoppingCartService
+                .addItemToCart(new CartItemRequestDto(2L, 1)).cartItems();
+        assertEquals(1, items.size());
+
+        bookService.updateBook(2L, new CreateBookRequestDto()
+                .setTitle("A Briefer History of Time")
+                .setAuthor("Stephen Hawking")
+                .setIsbn("978-0553380163")
+                .setPrice(new BigDecimal("20.00"))
+                .setCategoryIds(Set.of()));
+        CartDeltaResponseDto delta =
+                shoppingCartService.addItemToCartDelta(new CartItemRequestDto(2L, 1));
+        assertEquals("A Briefer History of Time", delta.changedItems().get(0).bookTitle());
+        assertEquals(0, new BigDecimal("40.00").compareTo(delta.totalPrice()));
+    }
+}
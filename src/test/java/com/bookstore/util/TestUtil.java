@@ -2,9 +2,12 @@ package com.bookstore.util;
 
 import com.bookstore.dto.CategoryDto;
 import com.bookstore.dto.CreateCategoryDto;
+import com.bookstore.dto.book.BookCategoryDto;
 import com.bookstore.dto.book.BookDto;
 import com.bookstore.dto.book.CreateBookRequestDto;
+import com.fasterxml.jackson.databind.JsonNode;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -23,7 +26,7 @@ public final class TestUtil {
                 .setDescription("Fantasy novel")
                 .setCoverImage(null)
                 .setCategories(Set.of(
-                        new CategoryDto()
+                        new BookCategoryDto()
                                 .setId(1L)
                                 .setName("Fiction")
                                 .setDescription("Fictional books")
@@ -40,7 +43,7 @@ public final class TestUtil {
                 .setDescription("Cosmology and science")
                 .setCoverImage(null)
                 .setCategories(Set.of(
-                        new CategoryDto()
+                        new BookCategoryDto()
                                 .setId(2L)
                                 .setName("Science")
                                 .setDescription("Scientific literature")
@@ -57,7 +60,7 @@ public final class TestUtil {
                 .setDescription("A handbook of agile software craftsmanship")
                 .setCoverImage(null)
                 .setCategories(Set.of(
-                        new CategoryDto()
+                        new BookCategoryDto()
                                 .setId(3L)
                                 .setName("Programming")
                                 .setDescription("Books about software development")
@@ -124,4 +127,10 @@ public final class TestUtil {
                 createProgrammingCategory()
         );
     }
+
+    public static List<Long> toList(JsonNode array, String field) {
+        List<Long> values = new ArrayList<>();
+        array.forEach(node -> values.add(node.get(field).asLong()));
+        return values;
+    }
 }
@@ -1,5 +1,6 @@
 DELETE FROM books_categories;
 DELETE FROM books;
+DELETE FROM category_closure;
 DELETE FROM categories;
 
 ALTER TABLE books ALTER COLUMN id RESTART WITH 1;
@@ -1,5 +1,6 @@
 DELETE FROM books_categories;
 DELETE FROM books;
+DELETE FROM category_closure;
 DELETE FROM categories;
 
 ALTER TABLE books ALTER COLUMN id RESTART WITH 1;
@@ -10,6 +11,9 @@ VALUES ('Fiction', 'Fictional books', false),
        ('Science', 'Scientific literature', false),
        ('Programming', 'Books about software development', false);
 
+INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+SELECT id, id, 0 FROM categories;
+
 INSERT INTO books (title, author, isbn, price, description, cover_image, deleted)
 VALUES ('The Hobbit', 'J.R.R. Tolkien', '978-0547928227', 15.99, 'Fantasy novel', NULL, false),
        ('A Brief History of Time', 'Stephen Hawking', '978-0553380163', 18.50, 'Cosmology and science', NULL, false),
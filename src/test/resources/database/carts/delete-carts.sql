@@ -0,0 +1,2 @@
+DELETE FROM cart_items;
+DELETE FROM shopping_carts;
@@ -0,0 +1,2 @@
+INSERT INTO shopping_carts (user_id, is_deleted)
+VALUES (1, false);
@@ -1,2 +1,3 @@
+DELETE FROM category_closure;
 DELETE FROM categories;
 ALTER TABLE categories ALTER COLUMN id RESTART WITH 1;
@@ -3,3 +3,6 @@ INSERT INTO categories (name, description, is_deleted)
 VALUES ('Fiction', 'Fictional books', false),
        ('Science', 'Scientific literature', false),
        ('Programming', 'Books about software development', false);
+
+INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+SELECT id, id, 0 FROM categories;